@@ -0,0 +1,354 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Plays the game by itself: plans a route that digs out every cell of ground the hero
+ * can reach, then presses the controls to follow it, through the same GameInput as
+ * the keyboard. Used to check that a level can be finished at all, and to drive long
+ * headless runs.
+ *
+ * How the hero can move, a cell at a time (see Hero):
+ *
+ *   - left or right into any cell but a metal plate (digging it, if it has dirt)
+ *   - up into any cell but a metal plate (digging it); "up" lifts the hero a little each tick
+ *   - down only into a cell that is already open, by falling; the hero lands on top
+ *     of dirt, so it can never dig downwards
+ *
+ * So a cell of dirt can only be dug from beside it or from below. The planner finds
+ * every cell the hero can get to that way (a breadth-first search from the hero's cell),
+ * keeping the way it first reached each one as a tree. Once a cell has been dug, each
+ * step in the tree can be taken in both directions, so walking the tree (into each
+ * branch and back out again) visits every cell that can be reached, in at most twice
+ * as many steps as there are cells. Branches with no dirt in them are left out, as is
+ * the walk back from the last cell of dirt. Planning takes a few steps per cell, so a
+ * level of 10,000 cells is planned in a few milliseconds.
+ *
+ * Any dirt that isn't reached can't be dug: the level can't be finished.
+ *
+ * To follow the route, each tick the bot steers the hero towards the middle of the next
+ * cell on it: left or right until it is lined up, and "up" whenever it is below the
+ * middle (letting go to drop). If the hero hasn't got there after STUCK_TICKS, that
+ * cell is skipped.
+ *
+ * To use, from a terminal in the scenario folder (no Greenfoot needed):
+ *
+ *   javac AutoDigger.java
+ *   java AutoDigger levels/level1.lvl        (or a number of columns, for a generated level)
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class AutoDigger implements GameInput
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // How close the hero must be to the middle of a cell (across, and down) to have reached it.
+    // Walking on from a cell any higher up leaves a thin crust of dirt under the hero's feet,
+    // which it can't get down through.
+    private static final int X_TOLERANCE = 2;
+    private static final int Y_TOLERANCE = 2;
+
+    // Ticks to spend trying to reach one cell before giving up on it
+    private static final int STUCK_TICKS = 240;
+
+    // Height of generated levels
+    private static final int GENERATED_ROWS = 20;
+
+    // The game being played, and its size in cells
+    private Simulation simulation;
+    private int columns;
+    private int rows;
+
+    // The cells to visit, in order (row * columns + column), and which one is next
+    private int[] route;
+    private int next;
+
+    // Cells of dirt the hero can't get to
+    private int unreachable;
+
+    // Ticks spent trying to reach the next cell, and cells given up on
+    private int ticksOnCell;
+    private int skipped;
+
+    // Controls for this tick
+    private boolean left;
+    private boolean right;
+    private boolean up;
+
+    // Nanoseconds the plan took
+    private long planNanos;
+
+    /**
+     * Constructor
+     *
+     * Plans a route through the given game as it is now.
+     */
+    public AutoDigger(Simulation simulation)
+    {
+        this.simulation = simulation;
+        columns = simulation.getLevel().getColumns();
+        rows = simulation.getLevel().getRows();
+
+        long startTime = System.nanoTime();
+        plan();
+        planNanos = System.nanoTime() - startTime;
+        next = 0;
+        ticksOnCell = 0;
+        skipped = 0;
+    }
+
+    /**
+     * Work out the route: every cell the hero can reach, and a walk that visits them all.
+     */
+    private void plan()
+    {
+        int cellCount = columns * rows;
+        int start = Math.floorDiv(simulation.getHero().getY(), Simulation.TILE_SIZE) * columns
+                    + Math.floorDiv(simulation.getHero().getX(), Simulation.TILE_SIZE);
+
+        // Breadth-first search, keeping the cell each cell was first reached from
+        int[] parent = new int[cellCount];
+        int[] order = new int[cellCount];
+        boolean[] reached = new boolean[cellCount];
+        int reachedCount = 0;
+        order[reachedCount] = start;
+        reachedCount += 1;
+        reached[start] = true;
+        parent[start] = -1;
+        for (int head = 0; head < reachedCount; head += 1)
+        {
+            int cell = order[head];
+            int column = cell % columns;
+            int row = cell / columns;
+            for (int way = 0; way < 4; way += 1)
+            {
+                int toColumn = column + (way == 0 ? -1 : way == 1 ? 1 : 0);
+                int toRow = row + (way == 2 ? -1 : way == 3 ? 1 : 0);
+                if (toColumn < 0 || toColumn >= columns || toRow < 0 || toRow >= rows)
+                {
+                    continue;
+                }
+                int to = toRow * columns + toColumn;
+                if (reached[to] || !canEnter(toColumn, toRow, way == 3))
+                {
+                    continue;
+                }
+                reached[to] = true;
+                parent[to] = cell;
+                order[reachedCount] = to;
+                reachedCount += 1;
+            }
+        }
+
+        // Which branches have dirt in them (children come after their parents in the search,
+        // so going through it backwards sees every child first)
+        boolean[] hasDirt = new boolean[cellCount];
+        int[] firstChild = new int[cellCount];
+        int[] nextSibling = new int[cellCount];
+        Arrays.fill(firstChild, -1);
+        int dirtCount = 0;
+        for (int i = reachedCount - 1; i >= 0; i -= 1)
+        {
+            int cell = order[i];
+            if (simulation.getTerrain().isSolid(cell % columns, cell / columns))
+            {
+                hasDirt[cell] = true;
+                dirtCount += 1;
+            }
+            if (hasDirt[cell] && parent[cell] >= 0)
+            {
+                hasDirt[parent[cell]] = true;
+                nextSibling[cell] = firstChild[parent[cell]];
+                firstChild[parent[cell]] = cell;
+            }
+        }
+        unreachable = simulation.getTerrain().getRemaining() - dirtCount;
+
+        // Walk the tree: into each branch with dirt, and back out
+        int[] walk = new int[Math.max(1, 2 * reachedCount)];
+        int length = 0;
+        int lastDirt = 0;
+        int[] childToVisit = new int[cellCount];
+        int cell = start;
+        childToVisit[start] = firstChild[start];
+        walk[length] = start;
+        length += 1;
+        while (cell >= 0)
+        {
+            int child = childToVisit[cell];
+            if (child >= 0)
+            {
+                // Into the next branch
+                childToVisit[cell] = nextSibling[child];
+                childToVisit[child] = firstChild[child];
+                cell = child;
+            }
+            else
+            {
+                // Back out to the parent
+                cell = parent[cell];
+                if (cell < 0)
+                {
+                    break;
+                }
+            }
+            walk[length] = cell;
+            length += 1;
+            if (simulation.getTerrain().isSolid(cell % columns, cell / columns))
+            {
+                lastDirt = length;
+            }
+        }
+
+        // No need to walk back from the last cell of dirt
+        route = Arrays.copyOf(walk, Math.max(lastDirt, 1));
+    }
+
+    /**
+     * Can the hero move into the given cell? Downwards moves need the cell to be open already.
+     */
+    private boolean canEnter(int column, int row, boolean downwards)
+    {
+        if (simulation.getLevel().getTile(column, row) == LevelData.METAL)
+        {
+            return false;
+        }
+        return !downwards || !simulation.getTerrain().isSolid(column, row);
+    }
+
+    /**
+     * Decide the controls for the coming tick.
+     */
+    public void nextTick()
+    {
+        left = false;
+        right = false;
+        up = false;
+        Hero hero = simulation.getHero();
+
+        // Move on past any cells already reached (or taking too long)
+        while (next < route.length)
+        {
+            int targetX = (route[next] % columns) * Simulation.TILE_SIZE + Simulation.TILE_SIZE / 2;
+            int targetY = (route[next] / columns) * Simulation.TILE_SIZE + Simulation.TILE_SIZE / 2;
+            boolean there = Math.abs(hero.getX() - targetX) <= X_TOLERANCE && Math.abs(hero.getY() - targetY) <= Y_TOLERANCE;
+            if (!there && ticksOnCell < STUCK_TICKS)
+            {
+                // Steer towards it
+                right = hero.getX() < targetX - X_TOLERANCE;
+                left = hero.getX() > targetX + X_TOLERANCE;
+                up = hero.getY() > targetY;
+                ticksOnCell += 1;
+                return;
+            }
+            if (!there)
+            {
+                skipped += 1;
+            }
+            next += 1;
+            ticksOnCell = 0;
+        }
+    }
+
+    /**
+     * Has the whole route been followed?
+     */
+    public boolean isFinished()
+    {
+        return next >= route.length;
+    }
+
+    /**
+     * Number of cells on the route.
+     */
+    public int getRouteLength()
+    {
+        return route.length;
+    }
+
+    /**
+     * Cells of dirt the hero can't get to (if any, the level can't be finished).
+     */
+    public int getUnreachable()
+    {
+        return unreachable;
+    }
+
+    /**
+     * Cells on the route that the hero didn't manage to get to.
+     */
+    public int getSkipped()
+    {
+        return skipped;
+    }
+
+    /**
+     * Nanoseconds the plan took.
+     */
+    public long getPlanNanos()
+    {
+        return planNanos;
+    }
+
+    /**
+     * Walk left this tick?
+     */
+    public boolean isLeftDown()
+    {
+        return left;
+    }
+
+    /**
+     * Walk right this tick?
+     */
+    public boolean isRightDown()
+    {
+        return right;
+    }
+
+    /**
+     * Go up this tick?
+     */
+    public boolean isUpDown()
+    {
+        return up;
+    }
+
+    /**
+     * Run from a terminal: java AutoDigger [level file, or number of columns]
+     *
+     * Exits with status 1 if the level can't be finished, or the bot didn't finish it.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        String which = args.length > 0 ? args[0] : "levels/level1.lvl";
+        LevelData level = which.matches("[0-9]+")
+                          ? LevelGenerator.create(Integer.parseInt(which), GENERATED_ROWS, 0, 1)
+                          : LevelData.load(which);
+        Simulation simulation = new Simulation(level);
+        AutoDigger bot = new AutoDigger(simulation);
+        System.out.println("Planned " + bot.getRouteLength() + " steps over " + (level.getColumns() * level.getRows())
+                           + " cells in " + (bot.getPlanNanos() / 1000) + " microseconds; "
+                           + bot.getUnreachable() + " cells of dirt can't be reached");
+
+        // Play as fast as it will go
+        long startTime = System.nanoTime();
+        while (!bot.isFinished() && !simulation.isLevelComplete())
+        {
+            simulation.step(bot);
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        System.out.println("Played " + simulation.getTick() + " ticks in " + (elapsed / 1000000) + " ms: "
+                           + simulation.getTerrainIndex().getRemaining() + " cells left, "
+                           + bot.getSkipped() + " steps skipped"
+                           + (simulation.isLevelComplete() ? " (level complete)" : ""));
+        if (bot.getUnreachable() > 0 || !simulation.isLevelComplete())
+        {
+            System.exit(1);
+        }
+    }
+}
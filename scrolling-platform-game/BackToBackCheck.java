@@ -0,0 +1,121 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.List;
+
+/**
+ * Checks that a new world shows all of its own terrain, even though the pieces of
+ * ground it uses were last in the world before it (see TilePool).
+ *
+ * Builds two worlds one after the other, walks the hero of the second one right across
+ * the level, and after every step checks that each column on screen with any terrain
+ * in it is shown by a piece of ground in the second world. Prints what it finds, and
+ * stops with an IllegalStateException if any is missing.
+ *
+ * Like WorldBenchmarks, this needs the Greenfoot classes on the classpath, and is run
+ * from the scenario folder:
+ *
+ *   javac -cp greenfoot.jar *.java
+ *   java -cp greenfoot.jar:. BackToBackCheck
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class BackToBackCheck
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Ticks the hero walks between checks
+    private static final int TICKS_PER_STEP = 8;
+
+    /**
+     * Run from a terminal: java BackToBackCheck
+     */
+    public static void main(String[] args)
+    {
+        new SideScrollingWorld();
+        SideScrollingWorld world = new SideScrollingWorld();
+        Simulation simulation = world.getSimulation();
+        GameInput walkRight = new GameInput()
+        {
+            public boolean isLeftDown()
+            {
+                return false;
+            }
+
+            public boolean isRightDown()
+            {
+                return true;
+            }
+
+            public boolean isUpDown()
+            {
+                return false;
+            }
+        };
+
+        int checked = 0;
+        int lastX = -1;
+        while (simulation.getHero().getX() != lastX)
+        {
+            lastX = simulation.getHero().getX();
+            for (int i = 0; i < TICKS_PER_STEP; i += 1)
+            {
+                simulation.step(walkRight);
+            }
+            world.act();
+            checked += checkColumnsOnScreen(world);
+        }
+        System.out.println("Back-to-back worlds: every column of terrain on screen was shown in the new world ("
+                           + checked + " checks, hero walked to x = " + lastX + ")");
+    }
+
+    /**
+     * Check that each column on screen with terrain in it is shown by a piece of ground
+     * in the given world, and return how many columns were checked.
+     */
+    private static int checkColumnsOnScreen(SideScrollingWorld world)
+    {
+        LevelData level = world.getSimulation().getLevel();
+        List<Ground> grounds = world.getObjects(Ground.class);
+        int firstColumn = world.getCamera().getX() / SideScrollingWorld.TILE_SIZE;
+        int lastColumn = Math.min((world.getCamera().getX() + world.getWidth() - 1) / SideScrollingWorld.TILE_SIZE,
+                                  level.getColumns() - 1);
+
+        int checked = 0;
+        for (int column = firstColumn; column <= lastColumn; column += 1)
+        {
+            if (hasTerrain(level, column))
+            {
+                boolean shown = false;
+                for (Ground ground : grounds)
+                {
+                    shown = shown || ground.showsColumn(column);
+                }
+                if (!shown)
+                {
+                    throw new IllegalStateException("Column " + column + " is not shown in the new world"
+                                                    + " (hero at x = " + world.getSimulation().getHero().getX() + ")");
+                }
+                checked += 1;
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * Is there any terrain (dirt or metal plates) in the given column of the level?
+     */
+    private static boolean hasTerrain(LevelData level, int column)
+    {
+        for (int row = 0; row < level.getRows(); row += 1)
+        {
+            if (level.getTile(column, row) != LevelData.EMPTY)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
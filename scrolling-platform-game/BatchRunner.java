@@ -0,0 +1,337 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs many separate games at once, one per generated level, spread across every core,
+ * and sums up how they went: for balancing the game and checking that a change hasn't
+ * broken anything.
+ *
+ * Game number n is played on the level LevelGenerator makes from seed + n, either with
+ * HeadlessRunner's script or with random controls (seeded by n too), until the level is
+ * complete or the tick limit is reached. Every game has its own level, simulation and
+ * input, and its results are its own until they are added together, so the games share
+ * nothing while they run and each core added plays games as fast as the first.
+ *
+ * The games are split in halves, and halves of halves, on a fork/join pool until each
+ * piece is a few games; the pieces' results are added up as they finish.
+ *
+ * The game has no deaths yet, so "caught" counts the times a Pooka reached the hero.
+ *
+ * To use, from a terminal in the scenario folder (no Greenfoot needed):
+ *
+ *   javac BatchRunner.java
+ *   java BatchRunner [games] [columns] [tick limit] [script|random] [threads]
+ *   java BatchRunner 1000 60 20000 random
+ *   java BatchRunner 200 60 20000 script scaling   (same games on 1, 2, 4... threads, then every core)
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class BatchRunner
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Height of the generated levels, and enemies per 20 columns
+    private static final int ROWS = 20;
+    private static final int COLUMNS_PER_ENEMY = 20;
+
+    // Seed for game 0 (game n uses SEED + n)
+    private static final long SEED = 1;
+
+    // Games per piece of work that is not split further
+    private static final int GAMES_PER_TASK = 4;
+
+    // How often random controls change, in ticks
+    private static final int RANDOM_HOLD_TICKS = 20;
+
+    /**
+     * Run from a terminal: java BatchRunner [games] [columns] [tick limit] [script|random] [threads|scaling]
+     */
+    public static void main(String[] args)
+    {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int tickLimit = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        boolean random = args.length > 3 && args[3].equals("random");
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        if (args.length > 4 && args[4].equals("scaling"))
+        {
+            // The same games on 1, 2, 4... threads, and always on every core last
+            int threads = 1;
+            while (true)
+            {
+                Results results = run(games, columns, tickLimit, random, threads);
+                System.out.println(threads + " threads: " + results.getWallMillis() + " ms, "
+                                   + results.getTicksPerSecond() + " ticks per second");
+                if (threads == cores)
+                {
+                    break;
+                }
+                threads = Math.min(threads * 2, cores);
+            }
+            return;
+        }
+
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : cores;
+        Results results = run(games, columns, tickLimit, random, threads);
+        System.out.println(games + " games of " + columns + " columns, " + (random ? "random" : "scripted")
+                           + " controls, up to " + tickLimit + " ticks, on " + threads + " threads");
+        for (String line : results.describe())
+        {
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Play the given number of games on a pool of the given number of threads, and add up the results.
+     */
+    public static Results run(int games, int columns, int tickLimit, boolean random, int threads)
+    {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try
+        {
+            long startTime = System.nanoTime();
+            Results results = pool.invoke(new Games(0, games, columns, tickLimit, random));
+            results.wallNanos = System.nanoTime() - startTime;
+            return results;
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Play one game, start to finish, and return its results.
+     */
+    private static Results play(int game, int columns, int tickLimit, boolean random)
+    {
+        long startTime = System.nanoTime();
+        LevelData level = LevelGenerator.create(columns, ROWS, Math.max(1, columns / COLUMNS_PER_ENEMY), SEED + game);
+        HeadlessRunner runner = random ? new HeadlessRunner(level, new RandomInput(SEED + game)) : new HeadlessRunner(level);
+        Simulation simulation = runner.getSimulation();
+
+        int caught = 0;
+        boolean wasCaught = false;
+        int tick = 0;
+        while (tick < tickLimit && !simulation.isLevelComplete())
+        {
+            runner.run(1);
+            tick += 1;
+
+            // Count each time a Pooka reaches the hero (not every tick it stays there)
+            boolean isCaught = isHeroCaught(simulation);
+            if (isCaught && !wasCaught)
+            {
+                caught += 1;
+            }
+            wasCaught = isCaught;
+        }
+
+        Results results = new Results();
+        results.games = 1;
+        results.ticks = tick;
+        results.caught = caught;
+        results.gameNanos = System.nanoTime() - startTime;
+        if (simulation.isLevelComplete())
+        {
+            results.completed = 1;
+            results.ticksToComplete = new int[] { tick };
+        }
+        return results;
+    }
+
+    /**
+     * Is the centre of any Pooka inside the hero?
+     */
+    private static boolean isHeroCaught(Simulation simulation)
+    {
+        Hero hero = simulation.getHero();
+        Entities entities = simulation.getEntities();
+        for (int i = 0; i < entities.getCount(); i += 1)
+        {
+            if (entities.getType(i) == Entities.POOKA
+                && Math.abs(entities.getX(i) - hero.getX()) * 2 < Hero.WIDTH
+                && Math.abs(entities.getY(i) - hero.getY()) * 2 < Hero.HEIGHT)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A run of games (first included, end not), split in two until it is small enough to play.
+     */
+    private static class Games extends RecursiveTask<Results>
+    {
+        // Tasks are never serialized, but RecursiveTask is Serializable
+        private static final long serialVersionUID = 1L;
+
+        private int first;
+        private int end;
+        private int columns;
+        private int tickLimit;
+        private boolean random;
+
+        Games(int first, int end, int columns, int tickLimit, boolean random)
+        {
+            this.first = first;
+            this.end = end;
+            this.columns = columns;
+            this.tickLimit = tickLimit;
+            this.random = random;
+        }
+
+        protected Results compute()
+        {
+            if (end - first <= GAMES_PER_TASK)
+            {
+                Results results = new Results();
+                for (int game = first; game < end; game += 1)
+                {
+                    results.add(play(game, columns, tickLimit, random));
+                }
+                return results;
+            }
+
+            int middle = (first + end) / 2;
+            Games left = new Games(first, middle, columns, tickLimit, random);
+            Games right = new Games(middle, end, columns, tickLimit, random);
+            left.fork();
+            Results results = right.compute();
+            results.add(left.join());
+            return results;
+        }
+    }
+
+    /**
+     * Controls that change at random every RANDOM_HOLD_TICKS, from a seed of their own.
+     * Walking is more likely than standing still, so the hero gets somewhere.
+     */
+    private static class RandomInput implements GameInput
+    {
+        private Random random;
+        private int ticksLeft;
+        private boolean left;
+        private boolean right;
+        private boolean up;
+
+        RandomInput(long seed)
+        {
+            random = new Random(seed);
+            ticksLeft = 0;
+        }
+
+        public void nextTick()
+        {
+            if (ticksLeft == 0)
+            {
+                int choice = random.nextInt(5);
+                left = choice == 0 || choice == 1;
+                right = choice == 2 || choice == 3;
+                up = random.nextInt(4) == 0;
+                ticksLeft = RANDOM_HOLD_TICKS;
+            }
+            ticksLeft -= 1;
+        }
+
+        public boolean isLeftDown()
+        {
+            return left;
+        }
+
+        public boolean isRightDown()
+        {
+            return right;
+        }
+
+        public boolean isUpDown()
+        {
+            return up;
+        }
+    }
+
+    /**
+     * What happened in some number of games, added together.
+     */
+    public static class Results
+    {
+        private int games;
+        private int completed;
+        private long ticks;
+        private int caught;
+
+        // Ticks each completed game took
+        private int[] ticksToComplete = new int[0];
+
+        // Time spent inside the games (all threads together), and from start to finish
+        private long gameNanos;
+        private long wallNanos;
+
+        /**
+         * Add another set of results to these.
+         */
+        void add(Results other)
+        {
+            games += other.games;
+            completed += other.completed;
+            ticks += other.ticks;
+            caught += other.caught;
+            gameNanos += other.gameNanos;
+            int[] both = Arrays.copyOf(ticksToComplete, ticksToComplete.length + other.ticksToComplete.length);
+            System.arraycopy(other.ticksToComplete, 0, both, ticksToComplete.length, other.ticksToComplete.length);
+            ticksToComplete = both;
+        }
+
+        /**
+         * Milliseconds from the first game starting to the last one finishing.
+         */
+        public long getWallMillis()
+        {
+            return wallNanos / 1000000;
+        }
+
+        /**
+         * Ticks run per second of real time, across all threads.
+         */
+        public long getTicksPerSecond()
+        {
+            return wallNanos == 0 ? 0 : (long) (ticks / (wallNanos / 1e9));
+        }
+
+        /**
+         * Describe the results, one line per kind of result.
+         */
+        public String[] describe()
+        {
+            int[] sorted = ticksToComplete.clone();
+            Arrays.sort(sorted);
+            String completion = "Completed " + completed + " of " + games + " ("
+                                + (games == 0 ? 0 : completed * 100 / games) + "%)";
+            if (sorted.length > 0)
+            {
+                long total = 0;
+                for (int t : sorted)
+                {
+                    total += t;
+                }
+                completion += ", ticks to complete: mean " + (total / sorted.length)
+                              + ", median " + sorted[sorted.length / 2]
+                              + ", best " + sorted[0] + ", worst " + sorted[sorted.length - 1];
+            }
+            return new String[] {
+                completion,
+                "Caught by a Pooka " + caught + " times (" + String.format("%.2f", games == 0 ? 0.0 : caught / (double) games) + " per game)",
+                ticks + " ticks in " + getWallMillis() + " ms: " + getTicksPerSecond() + " ticks per second, "
+                + (ticks == 0 ? 0 : gameNanos / ticks) + " ns per tick per thread",
+            };
+        }
+    }
+}
@@ -0,0 +1,288 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timings for the parts of the game that run every frame, on generated levels of
+ * several sizes, so that changes to the frame loop can be measured.
+ *
+ * Each benchmark is warmed up first (so the JIT has compiled it), then timed over
+ * several runs; the mean and best time per operation are reported. Anything an
+ * operation needs doing before it can run again (starting the level over, say) is
+ * done outside the timed part.
+ *
+ *   heroTick       one simulation tick with the hero walking and digging
+ *   dig            digging one cell of ground
+ *   enemyChase     one simulation tick with one enemy per column chasing the hero
+ *   newGame        reading a level and setting up a new Simulation on it
+ *
+ * Only the Simulation is measured here, so that this class builds and runs with javac
+ * alone. Building the world and scrolling it use Greenfoot's classes, so they are
+ * measured by WorldBenchmarks, which needs them on the classpath.
+ *
+ * To use, from a terminal in the scenario folder (no Greenfoot needed):
+ *
+ *   javac Benchmarks.java
+ *   java Benchmarks                  (levels 45, 450 and 4500 columns wide)
+ *   java Benchmarks 45 9000          (or choose the widths)
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Benchmarks
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Height of every generated level, in tiles (as level 1)
+    private static final int ROWS = 20;
+
+    // How long to warm up, and how long (and how many times) to measure, in nanoseconds
+    private static final long WARMUP_NANOS = 500000000L;
+    private static final long RUN_NANOS = 200000000L;
+    private static final int RUNS = 5;
+
+    // Most ticks to run in one timed batch
+    private static final int TICKS_PER_BATCH = 100;
+
+    // Results are added here so the JIT can't skip the work
+    private static volatile long sink;
+
+    /**
+     * Something to time: does some operations and says how many it did.
+     */
+    interface Operation
+    {
+        /**
+         * Get ready to run (not timed).
+         */
+        void prepare();
+
+        /**
+         * Do some operations (timed), and return how many.
+         */
+        int run();
+    }
+
+    /**
+     * Run from a terminal: java Benchmarks [level widths...]
+     */
+    public static void main(String[] args)
+    {
+        List<Integer> widths = new ArrayList<Integer>();
+        for (String arg : args)
+        {
+            widths.add(Integer.parseInt(arg));
+        }
+        if (widths.isEmpty())
+        {
+            widths.add(45);
+            widths.add(450);
+            widths.add(4500);
+        }
+
+        for (int columns : widths)
+        {
+            heroTick(columns);
+            dig(columns);
+            enemyChase(columns);
+            newGame(columns);
+        }
+    }
+
+    /**
+     * One simulation tick with the hero walking right (and so digging) through the level.
+     */
+    private static void heroTick(final int columns)
+    {
+        final LevelData level = LevelGenerator.create(columns, ROWS, 0, 1);
+        final GameInput walkRight = new ScriptedInput(false, true, false);
+        measure("heroTick", columns, new Operation()
+        {
+            private Simulation simulation = new Simulation(level);
+
+            public void prepare()
+            {
+                // Start again once the hero reaches the far end
+                if (isAtEnd())
+                {
+                    simulation = new Simulation(level);
+                }
+            }
+
+            public int run()
+            {
+                int ticks = 0;
+                while (ticks < TICKS_PER_BATCH && !isAtEnd())
+                {
+                    simulation.step(walkRight);
+                    ticks += 1;
+                }
+                return ticks;
+            }
+
+            private boolean isAtEnd()
+            {
+                return simulation.getHero().getX() >= simulation.getWidth() - Simulation.TILE_SIZE * 2;
+            }
+        });
+    }
+
+    /**
+     * Digging one cell (a tile-sized box over a cell of ground). Only cells that
+     * were really dug count, not the empty cells and metal plates in between.
+     */
+    private static void dig(final int columns)
+    {
+        final LevelData level = LevelGenerator.create(columns, ROWS, 0, 1);
+        final Simulation simulation = new Simulation(level);
+        final Snapshot undug = Snapshot.take(simulation);
+        measure("dig", columns, new Operation()
+        {
+            public void prepare()
+            {
+                // Put all the dirt back
+                undug.restore(simulation);
+            }
+
+            public int run()
+            {
+                // Dig out every cell of the level, one at a time
+                int size = Simulation.TILE_SIZE;
+                int digs = 0;
+                for (int column = 0; column < level.getColumns(); column += 1)
+                {
+                    for (int row = 0; row < level.getRows(); row += 1)
+                    {
+                        digs += simulation.dig(column * size, row * size, column * size + size, row * size + size);
+                    }
+                }
+                return digs;
+            }
+        });
+    }
+
+    /**
+     * One simulation tick with one enemy per column chasing a hero who stands still.
+     */
+    private static void enemyChase(final int columns)
+    {
+        final LevelData level = LevelGenerator.create(columns, ROWS, columns, 1);
+        final GameInput standStill = new ScriptedInput(false, false, false);
+        measure("enemyChase", columns, new Operation()
+        {
+            private Simulation simulation = new Simulation(level);
+
+            public void prepare()
+            {
+            }
+
+            public int run()
+            {
+                for (int i = 0; i < TICKS_PER_BATCH; i += 1)
+                {
+                    simulation.step(standStill);
+                }
+                return TICKS_PER_BATCH;
+            }
+        });
+    }
+
+    /**
+     * Reading a level and setting up a new Simulation on it.
+     */
+    private static void newGame(final int columns)
+    {
+        final byte[] bytes = LevelGenerator.createBytes(columns, ROWS, 1, 1);
+        measure("newGame", columns, new Operation()
+        {
+            public void prepare()
+            {
+            }
+
+            public int run()
+            {
+                try
+                {
+                    Simulation simulation = new Simulation(LevelData.fromBytes(bytes));
+                    sink += simulation.getTerrain().getRemaining();
+                }
+                catch (IOException e)
+                {
+                    throw new IllegalStateException(e);
+                }
+                return 1;
+            }
+        });
+    }
+
+    /**
+     * Warm up an operation, then time it and print the mean and best time per operation.
+     */
+    static void measure(String name, int columns, Operation operation)
+    {
+        // Warm up
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd)
+        {
+            operation.prepare();
+            operation.run();
+        }
+
+        // Measure
+        double total = 0;
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < RUNS; i += 1)
+        {
+            // Only the time spent in run() counts
+            long operations = 0;
+            long elapsed = 0;
+            while (elapsed < RUN_NANOS)
+            {
+                operation.prepare();
+                long start = System.nanoTime();
+                operations += operation.run();
+                elapsed += System.nanoTime() - start;
+            }
+            double nanosPerOperation = (double) elapsed / operations;
+            total += nanosPerOperation;
+            best = Math.min(best, nanosPerOperation);
+        }
+        System.out.println(String.format("%-14s columns=%-7d %12.1f ns/op   (best %.1f)",
+                                         name, columns, total / RUNS, best));
+    }
+
+    /**
+     * Input that holds the same controls down on every tick.
+     */
+    private static class ScriptedInput implements GameInput
+    {
+        private boolean left;
+        private boolean right;
+        private boolean up;
+
+        ScriptedInput(boolean left, boolean right, boolean up)
+        {
+            this.left = left;
+            this.right = right;
+            this.up = up;
+        }
+
+        public boolean isLeftDown()
+        {
+            return left;
+        }
+
+        public boolean isRightDown()
+        {
+            return right;
+        }
+
+        public boolean isUpDown()
+        {
+            return up;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Tracks which part of the wider scrollable world is showing in the visible world.
+ *
+ * Tiles keep their positions in the scrollable world; only where they are drawn
+ * in the visible world changes when the camera moves.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Camera
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Position of the left edge of the visible world, within the scrollable world
+    private int x;
+
+    /**
+     * Constructor
+     *
+     * The camera starts at the far left of the scrollable world.
+     */
+    public Camera()
+    {
+        x = 0;
+    }
+
+    /**
+     * Position of the left edge of the visible world, within the scrollable world.
+     */
+    public int getX()
+    {
+        return x;
+    }
+
+    /**
+     * Move the camera horizontally (positive values move it to the right).
+     */
+    public void moveBy(int deltaX)
+    {
+        x += deltaX;
+    }
+
+    /**
+     * Convert a horizontal position in the scrollable world to one in the visible world.
+     */
+    public int toVisibleX(int scrollableX)
+    {
+        return scrollableX - x;
+    }
+
+    /**
+     * Convert a horizontal position in the visible world to one in the scrollable world.
+     */
+    public int toScrollableX(int visibleX)
+    {
+        return visibleX + x;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Told whenever some of the dirt in a cell is dug out, so that whatever is drawing
+ * the ground can redraw that cell.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public interface DigListener
+{
+    /**
+     * Some of the dirt in the cell at the given column and row of the level has just been dug out.
+     */
+    void cellCarved(int column, int row);
+}
@@ -0,0 +1,309 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The dirt of a level at a finer grain than whole cells, so tunnels follow the hero's
+ * shape instead of being cut out a cell at a time.
+ *
+ * The level is divided into dots DOT_SIZE pixels square (DOTS_PER_CELL across each cell).
+ * Each dot is one bit, set while there is dirt there. Dots are packed a row at a time,
+ * 64 to a long, so the eight dots across one cell are one byte of a long, lined up with
+ * the cells. Carving a box out of the dirt, or asking whether a box has any dirt in it,
+ * works on whole longs at a time, and nothing is created while doing either.
+ *
+ * The mask also counts how many dots of each cell have been carved, and remembers which
+ * cells the last carve() touched, so the simulation can tell when a cell has been dug
+ * out enough to count as dug.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class DigMask
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Size of a dot in pixels, and number of dots across (and down) a cell
+    public static final int DOT_SIZE = 4;
+    public static final int DOTS_PER_CELL = Simulation.TILE_SIZE / DOT_SIZE;
+
+    // Dots in a cell
+    public static final int DOTS_IN_CELL = DOTS_PER_CELL * DOTS_PER_CELL;
+
+    // Dimensions of the level, in cells and in dots
+    private int columns;
+    private int rows;
+    private int dotColumns;
+    private int dotRows;
+
+    // One bit per dot, a row of dots after another; each row starts a new long
+    private long[] dots;
+    private int wordsPerRow;
+
+    // Dots carved so far in each cell (row * columns + column)
+    private byte[] carved;
+
+    // Cells the last carve() touched, and when each cell was last touched (to list each once)
+    private int[] touchedCells;
+    private int touchedCount;
+    private int[] touchedOnCarve;
+    private int carveNumber;
+
+    /**
+     * Constructor
+     *
+     * Fills every dot of every cell that has dirt in the given terrain.
+     */
+    public DigMask(Terrain terrain)
+    {
+        // A cell's dots across must fill exactly one byte of a long
+        if (DOTS_PER_CELL != 8)
+        {
+            throw new IllegalStateException("DigMask needs 8 dots across a cell, not " + DOTS_PER_CELL);
+        }
+
+        columns = terrain.getColumns();
+        rows = terrain.getRows();
+        dotColumns = columns * DOTS_PER_CELL;
+        dotRows = rows * DOTS_PER_CELL;
+        wordsPerRow = (dotColumns + 63) / 64;
+        dots = new long[wordsPerRow * dotRows];
+        carved = new byte[columns * rows];
+        touchedCells = new int[16];
+        touchedCount = 0;
+        touchedOnCarve = new int[columns * rows];
+        carveNumber = 0;
+
+        for (int row = 0; row < rows; row += 1)
+        {
+            for (int column = 0; column < columns; column += 1)
+            {
+                if (terrain.isSolid(column, row))
+                {
+                    long lane = 0xFFL << ((column % 8) * 8);
+                    for (int dotRow = row * DOTS_PER_CELL; dotRow < (row + 1) * DOTS_PER_CELL; dotRow += 1)
+                    {
+                        dots[dotRow * wordsPerRow + column / 8] |= lane;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Is there dirt at the given pixel? Pixels outside the level have none.
+     */
+    public boolean isSolid(int x, int y)
+    {
+        int dotColumn = Math.floorDiv(x, DOT_SIZE);
+        int dotRow = Math.floorDiv(y, DOT_SIZE);
+        if (dotColumn < 0 || dotColumn >= dotColumns || dotRow < 0 || dotRow >= dotRows)
+        {
+            return false;
+        }
+        return (dots[dotRow * wordsPerRow + (dotColumn >>> 6)] & (1L << dotColumn)) != 0;
+    }
+
+    /**
+     * Is there any dirt in the given box of pixels (right and bottom edges exclusive)?
+     */
+    public boolean isAnySolid(int left, int top, int right, int bottom)
+    {
+        int firstDotColumn = Math.max(Math.floorDiv(left, DOT_SIZE), 0);
+        int endDotColumn = Math.min(Math.floorDiv(right - 1, DOT_SIZE) + 1, dotColumns);
+        int firstDotRow = Math.max(Math.floorDiv(top, DOT_SIZE), 0);
+        int endDotRow = Math.min(Math.floorDiv(bottom - 1, DOT_SIZE) + 1, dotRows);
+
+        for (int dotRow = firstDotRow; dotRow < endDotRow; dotRow += 1)
+        {
+            for (int word = firstDotColumn >>> 6; word <= (endDotColumn - 1) >>> 6 && endDotColumn > firstDotColumn; word += 1)
+            {
+                if ((dots[dotRow * wordsPerRow + word] & wordMask(word, firstDotColumn, endDotColumn)) != 0)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Carve the dirt out of the given box of pixels (right and bottom edges exclusive).
+     *
+     * Returns the number of dots carved. The cells that lost dots can then be
+     * looked up with getTouchedCount() and getTouchedCell().
+     */
+    public int carve(int left, int top, int right, int bottom)
+    {
+        carveNumber += 1;
+        touchedCount = 0;
+
+        int firstDotColumn = Math.max(Math.floorDiv(left, DOT_SIZE), 0);
+        int endDotColumn = Math.min(Math.floorDiv(right - 1, DOT_SIZE) + 1, dotColumns);
+        int firstDotRow = Math.max(Math.floorDiv(top, DOT_SIZE), 0);
+        int endDotRow = Math.min(Math.floorDiv(bottom - 1, DOT_SIZE) + 1, dotRows);
+        if (firstDotColumn >= endDotColumn)
+        {
+            return 0;
+        }
+
+        int dotsCarved = 0;
+        for (int dotRow = firstDotRow; dotRow < endDotRow; dotRow += 1)
+        {
+            int row = dotRow / DOTS_PER_CELL;
+            for (int word = firstDotColumn >>> 6; word <= (endDotColumn - 1) >>> 6; word += 1)
+            {
+                int index = dotRow * wordsPerRow + word;
+                long cleared = dots[index] & wordMask(word, firstDotColumn, endDotColumn);
+                if (cleared == 0)
+                {
+                    continue;
+                }
+                dots[index] &= ~cleared;
+                dotsCarved += Long.bitCount(cleared);
+
+                // Each byte of the word is one cell: count what it lost
+                for (int lane = 0; lane < 8; lane += 1)
+                {
+                    int lost = Long.bitCount(cleared & (0xFFL << (lane * 8)));
+                    if (lost > 0)
+                    {
+                        int cell = row * columns + word * 8 + lane;
+                        carved[cell] += lost;
+                        touch(cell);
+                    }
+                }
+            }
+        }
+        return dotsCarved;
+    }
+
+    /**
+     * Add a cell to the list of cells the current carve has touched (once).
+     */
+    private void touch(int cell)
+    {
+        if (touchedOnCarve[cell] == carveNumber)
+        {
+            return;
+        }
+        touchedOnCarve[cell] = carveNumber;
+        if (touchedCount == touchedCells.length)
+        {
+            touchedCells = Arrays.copyOf(touchedCells, touchedCount * 2);
+        }
+        touchedCells[touchedCount] = cell;
+        touchedCount += 1;
+    }
+
+    /**
+     * The bits of one word of a row that fall between the given dot columns
+     * (first included, end excluded).
+     */
+    private static long wordMask(int word, int firstDotColumn, int endDotColumn)
+    {
+        int low = Math.max(firstDotColumn - word * 64, 0);
+        int high = Math.min(endDotColumn - word * 64, 64);
+        long upTo = high == 64 ? -1L : (1L << high) - 1;
+        return upTo & (-1L << low);
+    }
+
+    /**
+     * Number of cells the last carve() took dots from.
+     */
+    public int getTouchedCount()
+    {
+        return touchedCount;
+    }
+
+    /**
+     * A cell the last carve() took dots from (numbered row * columns + column).
+     */
+    public int getTouchedCell(int i)
+    {
+        return touchedCells[i];
+    }
+
+    /**
+     * Number of dots carved out of the given cell so far.
+     */
+    public int getCarved(int column, int row)
+    {
+        return carved[row * columns + column];
+    }
+
+    /**
+     * The dots in one row of dots across a cell, as the low 8 bits of an int
+     * (bit n set when the n-th dot from the left has dirt).
+     */
+    public int getDotRow(int column, int row, int dotRowInCell)
+    {
+        int dotRow = row * DOTS_PER_CELL + dotRowInCell;
+        return (int) (dots[dotRow * wordsPerRow + column / 8] >>> ((column % 8) * 8)) & 0xFF;
+    }
+
+    /**
+     * Write every dot, and how many dots each cell has lost, for a Snapshot.
+     */
+    public void writeState(DataOutputStream out) throws IOException
+    {
+        for (int i = 0; i < dots.length; i += 1)
+        {
+            out.writeLong(dots[i]);
+        }
+        out.write(carved);
+    }
+
+    /**
+     * Read the dots written by writeState() (for a level of the same size) and check
+     * the counts of carved dots, without changing anything.
+     */
+    public void checkState(DataInputStream in) throws IOException
+    {
+        for (int i = 0; i < dots.length; i += 1)
+        {
+            in.readLong();
+        }
+        for (int i = 0; i < carved.length; i += 1)
+        {
+            int count = in.readByte();
+            if (count < 0 || count > DOTS_IN_CELL)
+            {
+                throw new IOException("Bad count of carved dots: " + count);
+            }
+        }
+    }
+
+    /**
+     * Put back the dots written by writeState() (for a level of the same size).
+     */
+    public void readState(DataInputStream in) throws IOException
+    {
+        for (int i = 0; i < dots.length; i += 1)
+        {
+            dots[i] = in.readLong();
+        }
+        in.readFully(carved);
+        touchedCount = 0;
+    }
+
+    /**
+     * Number of columns of cells in the level.
+     */
+    public int getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * Number of rows of cells in the level.
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+}
@@ -0,0 +1,336 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Every enemy in the level, kept in plain arrays and moved in one loop.
+ *
+ * Entity number i is described by the i-th element of each array (its type, position,
+ * velocity, and so on), rather than by an object of its own. Moving thousands of them
+ * is then one pass over a few arrays, with nothing created or thrown away each tick.
+ * EntityLayer draws them all onto one image.
+ *
+ * Entity numbers are only good until the next tick: when an entity is removed, the
+ * last one is moved into its place.
+ *
+ * Types of entity:
+ *
+ *   POOKA  follows the flow field through the tunnels to the hero
+ *
+ * The type is kept (and saved in snapshots) so that other kinds of enemy can be added.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Entities
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Types of entity
+    public static final int POOKA = 0;
+    public static final int TYPE_COUNT = 1;
+
+    // How fast a Pooka moves, in pixels per tick
+    private static final int POOKA_SPEED = 1;
+
+    // Each entity's type
+    private byte[] type;
+
+    // Each entity's centre now and at the start of the last tick (to draw it between ticks)
+    private int[] x;
+    private int[] y;
+    private int[] previousX;
+    private int[] previousY;
+
+    // Each entity's velocity, in pixels per tick
+    private int[] velocityX;
+    private int[] velocityY;
+
+    // Direction each entity is facing, as a distance across and down (turned into an angle only when drawn)
+    private int[] facingX;
+    private int[] facingY;
+
+    // Number of entities, and how many of each type
+    private int count;
+    private int[] countOfType;
+
+    /**
+     * Constructor
+     *
+     * Starts with no entities, and room for the given number before the arrays need to grow.
+     */
+    public Entities(int capacity)
+    {
+        capacity = Math.max(capacity, 16);
+        type = new byte[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+        previousX = new int[capacity];
+        previousY = new int[capacity];
+        velocityX = new int[capacity];
+        velocityY = new int[capacity];
+        facingX = new int[capacity];
+        facingY = new int[capacity];
+        count = 0;
+        countOfType = new int[TYPE_COUNT];
+    }
+
+    /**
+     * Add an entity of the given type with its centre at the given position, moving
+     * with the given velocity (until it chooses its own). Returns its number.
+     */
+    public int add(int entityType, int startingX, int startingY, int startingVelocityX, int startingVelocityY)
+    {
+        if (count == type.length)
+        {
+            grow();
+        }
+
+        int i = count;
+        type[i] = (byte) entityType;
+        x[i] = startingX;
+        y[i] = startingY;
+        previousX[i] = startingX;
+        previousY[i] = startingY;
+        velocityX[i] = startingVelocityX;
+        velocityY[i] = startingVelocityY;
+        facingX[i] = startingVelocityX;
+        facingY[i] = startingVelocityY;
+        count += 1;
+        countOfType[entityType] += 1;
+        return i;
+    }
+
+    /**
+     * Remove an entity (the last entity takes its number).
+     */
+    public void remove(int i)
+    {
+        countOfType[type[i]] -= 1;
+        count -= 1;
+        type[i] = type[count];
+        x[i] = x[count];
+        y[i] = y[count];
+        previousX[i] = previousX[count];
+        previousY[i] = previousY[count];
+        velocityX[i] = velocityX[count];
+        velocityY[i] = velocityY[count];
+        facingX[i] = facingX[count];
+        facingY[i] = facingY[count];
+    }
+
+    /**
+     * Advance every entity by one tick.
+     */
+    public void step(Simulation simulation)
+    {
+        // Everyone chases the same hero, through the same flow field
+        FlowField flowField = simulation.getFlowField();
+        Hero hero = simulation.getHero();
+        int tileSize = Simulation.TILE_SIZE;
+
+        for (int i = 0; i < count; i += 1)
+        {
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+
+            // Head for the middle of the next cell on the way to the hero
+            // (or straight for the hero, if in the hero's cell or shut off from the hero)
+            int column = Math.floorDiv(x[i], tileSize);
+            int row = Math.floorDiv(y[i], tileSize);
+            int way = flowField.getDirection(column, row);
+            int targetX = hero.getX();
+            int targetY = hero.getY();
+            if (way != FlowField.NONE)
+            {
+                targetX = (column + FlowField.getColumnStep(way)) * tileSize + tileSize / 2;
+                targetY = (row + FlowField.getRowStep(way)) * tileSize + tileSize / 2;
+            }
+            chase(i, targetX, targetY);
+        }
+    }
+
+    /**
+     * Turn an entity towards the given position and move it one step that way.
+     *
+     * The step is one of eight directions: across if the target is within 60 degrees
+     * of straight across, and down (or up) if it is within 60 degrees of straight down
+     * (or up). That is the same as rounding the cosine and sine of the angle to the
+     * target, without working out the angle.
+     */
+    private void chase(int i, int targetX, int targetY)
+    {
+        // Turn towards the target
+        long across = targetX - x[i];
+        long down = targetY - y[i];
+        facingX[i] = (int) across;
+        facingY[i] = (int) down;
+
+        // cos >= 1/2 exactly when 3 * across^2 >= down^2 (and likewise for sin)
+        velocityX[i] = 0;
+        velocityY[i] = 0;
+        if (3 * across * across >= down * down && across != 0)
+        {
+            velocityX[i] = Long.signum(across) * POOKA_SPEED;
+        }
+        if (3 * down * down >= across * across && down != 0)
+        {
+            velocityY[i] = Long.signum(down) * POOKA_SPEED;
+        }
+        x[i] += velocityX[i];
+        y[i] += velocityY[i];
+    }
+
+    /**
+     * Write every entity, for a Snapshot.
+     */
+    public void writeState(DataOutputStream out) throws IOException
+    {
+        out.writeInt(count);
+        for (int i = 0; i < count; i += 1)
+        {
+            out.writeByte(type[i]);
+            out.writeInt(x[i]);
+            out.writeInt(y[i]);
+            out.writeInt(previousX[i]);
+            out.writeInt(previousY[i]);
+            out.writeInt(velocityX[i]);
+            out.writeInt(velocityY[i]);
+            out.writeInt(facingX[i]);
+            out.writeInt(facingY[i]);
+        }
+    }
+
+    /**
+     * Read the entities written by writeState() and check their types, without
+     * changing anything.
+     */
+    public static void checkState(DataInputStream in) throws IOException
+    {
+        int entityCount = in.readInt();
+        if (entityCount < 0)
+        {
+            throw new IOException("Bad number of entities: " + entityCount);
+        }
+        for (int n = 0; n < entityCount; n += 1)
+        {
+            int entityType = in.readByte();
+            if (entityType < 0 || entityType >= TYPE_COUNT)
+            {
+                throw new IOException("Unknown entity type " + entityType);
+            }
+            for (int field = 0; field < 8; field += 1)
+            {
+                in.readInt();
+            }
+        }
+    }
+
+    /**
+     * Replace every entity with those written by writeState().
+     */
+    public void readState(DataInputStream in) throws IOException
+    {
+        count = 0;
+        Arrays.fill(countOfType, 0);
+        int entityCount = in.readInt();
+        for (int n = 0; n < entityCount; n += 1)
+        {
+            int entityType = in.readByte();
+            int i = add(entityType, in.readInt(), in.readInt(), 0, 0);
+            previousX[i] = in.readInt();
+            previousY[i] = in.readInt();
+            velocityX[i] = in.readInt();
+            velocityY[i] = in.readInt();
+            facingX[i] = in.readInt();
+            facingY[i] = in.readInt();
+        }
+    }
+
+    /**
+     * Make room for twice as many entities.
+     */
+    private void grow()
+    {
+        int capacity = type.length * 2;
+        type = Arrays.copyOf(type, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        facingX = Arrays.copyOf(facingX, capacity);
+        facingY = Arrays.copyOf(facingY, capacity);
+    }
+
+    /**
+     * Number of entities.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Number of entities of the given type.
+     */
+    public int getCount(int entityType)
+    {
+        return countOfType[entityType];
+    }
+
+    /**
+     * Type of an entity (POOKA).
+     */
+    public int getType(int i)
+    {
+        return type[i];
+    }
+
+    /**
+     * Horizontal position of an entity's centre in the scrollable world.
+     */
+    public int getX(int i)
+    {
+        return x[i];
+    }
+
+    /**
+     * Vertical position of an entity's centre in the scrollable world.
+     */
+    public int getY(int i)
+    {
+        return y[i];
+    }
+
+    /**
+     * Horizontal position of an entity's centre, the given fraction of the way
+     * from where it was at the start of the last tick to where it is now.
+     */
+    public int getX(int i, double alpha)
+    {
+        return previousX[i] + (int) Math.round((x[i] - previousX[i]) * alpha);
+    }
+
+    /**
+     * Vertical position of an entity's centre, the given fraction of the way
+     * from where it was at the start of the last tick to where it is now.
+     */
+    public int getY(int i, double alpha)
+    {
+        return previousY[i] + (int) Math.round((y[i] - previousY[i]) * alpha);
+    }
+
+    /**
+     * Direction an entity is facing, in degrees clockwise from facing right.
+     */
+    public int getRotation(int i)
+    {
+        return ((int) Math.toDegrees(Math.atan2(facingY[i], facingX[i])) + 360) % 360;
+    }
+}
@@ -0,0 +1,123 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * Draws every enemy in one go, onto one image the size of the visible world.
+ *
+ * This is a single actor however many entities there are, so Greenfoot has one image
+ * to draw rather than one per entity. Each frame, only the spots where entities were
+ * drawn last time are wiped before they are drawn again.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class EntityLayer extends Actor
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // The entities to draw
+    private Entities entities;
+
+    // The layer's image, and its size
+    private GreenfootImage layer;
+    private int width;
+    private int height;
+
+    // Rectangles drawn on last frame (x, y, width, height each), to be wiped next frame
+    private int[] drawn;
+    private int drawnCount;
+
+    /**
+     * Constructor
+     *
+     * Draws the given entities onto a layer of the given size (the visible world).
+     */
+    public EntityLayer(Entities entities, int width, int height)
+    {
+        this.entities = entities;
+        this.width = width;
+        this.height = height;
+        layer = new GreenfootImage(width, height);
+        setImage(layer);
+        drawn = new int[64 * 4];
+        drawnCount = 0;
+    }
+
+    /**
+     * Nothing to do: the world calls show() each frame.
+     */
+    public void act()
+    {
+        // The world steps the simulation and then calls show()
+    }
+
+    /**
+     * Draw every entity that the camera can see where it is now.
+     *
+     * Alpha is how far the moment being drawn is between the last tick and the next.
+     */
+    public void show(Camera camera, double alpha)
+    {
+        Graphics2D graphics = layer.getAwtImage().createGraphics();
+
+        // Wipe what was drawn last frame
+        graphics.setComposite(AlphaComposite.Clear);
+        for (int i = 0; i < drawnCount; i += 4)
+        {
+            graphics.fillRect(drawn[i], drawn[i + 1], drawn[i + 2], drawn[i + 3]);
+        }
+        drawnCount = 0;
+        graphics.setComposite(AlphaComposite.SrcOver);
+
+        // Draw each entity on screen
+        for (int i = 0; i < entities.getCount(); i += 1)
+        {
+            int x = camera.toVisibleX(entities.getX(i, alpha));
+            int y = entities.getY(i, alpha);
+            GreenfootImage image = Sprites.getRotated(Sprites.POOKA, entities.getRotation(i));
+            drawIfVisible(graphics, image, x - image.getWidth() / 2, y - image.getHeight() / 2);
+        }
+        graphics.dispose();
+    }
+
+    /**
+     * Draw an image with its top left corner at the given spot, if any of it is on screen.
+     */
+    private void drawIfVisible(Graphics2D graphics, GreenfootImage image, int left, int top)
+    {
+        if (isVisible(left, top, image.getWidth(), image.getHeight()))
+        {
+            graphics.drawImage(image.getAwtImage(), left, top, null);
+            rememberDrawn(left, top, image.getWidth(), image.getHeight());
+        }
+    }
+
+    /**
+     * Does the given rectangle overlap the layer?
+     */
+    private boolean isVisible(int left, int top, int rectangleWidth, int rectangleHeight)
+    {
+        return left + rectangleWidth > 0 && left < width && top + rectangleHeight > 0 && top < height;
+    }
+
+    /**
+     * Note a rectangle that has been drawn on, so it is wiped next frame.
+     */
+    private void rememberDrawn(int left, int top, int rectangleWidth, int rectangleHeight)
+    {
+        if (drawnCount + 4 > drawn.length)
+        {
+            drawn = Arrays.copyOf(drawn, drawn.length * 2);
+        }
+        drawn[drawnCount] = left;
+        drawn[drawnCount + 1] = top;
+        drawn[drawnCount + 2] = rectangleWidth;
+        drawn[drawnCount + 3] = rectangleHeight;
+        drawnCount += 4;
+    }
+}
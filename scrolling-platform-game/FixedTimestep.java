@@ -0,0 +1,91 @@
+/**
+ * Decides how many ticks of the game to run each frame, so the game runs at the
+ * same speed however fast or slow the frames come.
+ *
+ * Real time is added up as frames arrive, and a tick is run for every TICK_NANOS
+ * of it. When frames are slow, several ticks run in one frame to catch up (but
+ * never more than MAX_TICKS_PER_FRAME, so a long pause can't freeze the game while
+ * it catches up). Time left over that isn't a whole tick yet gives how far to draw
+ * everyone between their last two positions.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class FixedTimestep
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Ticks per second, and the real time each one stands for
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1000000000L / TICKS_PER_SECOND;
+
+    // Most ticks to run in one frame when catching up
+    public static final int MAX_TICKS_PER_FRAME = 5;
+
+    // Real time not yet used up by ticks
+    private long accumulatedNanos;
+
+    // When the last frame arrived (or -1 before the first one)
+    private long lastFrameNanos;
+
+    /**
+     * Constructor
+     *
+     * Starts with no time built up.
+     */
+    public FixedTimestep()
+    {
+        reset();
+    }
+
+    /**
+     * Forget any time built up (for example, after the game has been paused).
+     *
+     * The next frame runs exactly one tick.
+     */
+    public void reset()
+    {
+        accumulatedNanos = 0;
+        lastFrameNanos = -1;
+    }
+
+    /**
+     * A frame has arrived at the given time (from System.nanoTime()):
+     * return how many ticks to run now.
+     */
+    public int advance(long nowNanos)
+    {
+        // The first frame runs one tick and starts the clock
+        if (lastFrameNanos < 0)
+        {
+            lastFrameNanos = nowNanos;
+            accumulatedNanos = 0;
+            return 1;
+        }
+
+        accumulatedNanos += nowNanos - lastFrameNanos;
+        lastFrameNanos = nowNanos;
+
+        int ticks = (int) Math.min(accumulatedNanos / TICK_NANOS, MAX_TICKS_PER_FRAME);
+        accumulatedNanos -= ticks * TICK_NANOS;
+
+        // Too far behind to catch up: drop the rest rather than fall further behind
+        if (accumulatedNanos >= TICK_NANOS)
+        {
+            accumulatedNanos = TICK_NANOS - 1;
+        }
+        return ticks;
+    }
+
+    /**
+     * How far the current moment is between the last tick and the next one
+     * (0 means at the last tick, just under 1 means almost at the next).
+     */
+    public double getAlpha()
+    {
+        return (double) accumulatedNanos / TICK_NANOS;
+    }
+}
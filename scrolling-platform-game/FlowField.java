@@ -0,0 +1,266 @@
+import java.util.Arrays;
+
+/**
+ * Shows every enemy the way to the hero through the tunnels, all at once.
+ *
+ * A breadth-first search spreads out from the hero's cell through the open cells
+ * (anything that isn't ground or metal), and records for each cell which neighbour
+ * is one step closer to the hero. An enemy then only has to look up its own cell to
+ * know where to go next, however many enemies there are.
+ *
+ * The search is redone when the hero moves to a different cell; it only touches the
+ * cells it reached last time, not the whole level. When a cell is dug while the hero
+ * stays put, the new opening can only make paths shorter, so the shorter distances are
+ * spread out from that cell alone.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class FlowField
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Which way to step from a cell to get closer to the hero
+    public static final int NONE = 0;
+    public static final int RIGHT = 1;
+    public static final int LEFT = 2;
+    public static final int DOWN = 3;
+    public static final int UP = 4;
+
+    // Column and row change for each direction (indexed by the constants above)
+    private static final int[] COLUMN_STEP = { 0, 1, -1, 0, 0 };
+    private static final int[] ROW_STEP = { 0, 0, 0, 1, -1 };
+
+    // Distance of a cell the search has not reached
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    // The game whose open cells are searched
+    private Simulation simulation;
+
+    // Dimensions of the level, in cells
+    private int columns;
+    private int rows;
+
+    // For each cell (row * columns + column): steps to the hero, and which way to go
+    private int[] distance;
+    private byte[] direction;
+
+    // Cells waiting to be searched from
+    private int[] queue;
+
+    // Every cell the field has reached (so a new search only has to reset these)
+    private int[] reached;
+    private int reachedCount;
+
+    // The hero's cell the field leads to (-1 before the first search)
+    private int goalColumn;
+    private int goalRow;
+
+    /**
+     * Constructor
+     *
+     * Creates an empty field for the given game; call setGoal() to fill it in.
+     */
+    public FlowField(Simulation simulation, int columns, int rows)
+    {
+        this.simulation = simulation;
+        this.columns = columns;
+        this.rows = rows;
+        distance = new int[columns * rows];
+        direction = new byte[columns * rows];
+        queue = new int[columns * rows];
+        reached = new int[columns * rows];
+        Arrays.fill(distance, UNREACHED);
+        reachedCount = 0;
+        goalColumn = -1;
+        goalRow = -1;
+    }
+
+    /**
+     * Lead the field to the given cell (where the hero is).
+     *
+     * Nothing is done if the field already leads there.
+     */
+    public void setGoal(int column, int row)
+    {
+        column = Math.max(0, Math.min(column, columns - 1));
+        row = Math.max(0, Math.min(row, rows - 1));
+        if (column == goalColumn && row == goalRow)
+        {
+            return;
+        }
+        goalColumn = column;
+        goalRow = row;
+
+        // Forget the last search (only the cells it reached were changed)
+        for (int i = 0; i < reachedCount; i += 1)
+        {
+            distance[reached[i]] = UNREACHED;
+            direction[reached[i]] = NONE;
+        }
+        reachedCount = 0;
+
+        // Search outwards from the goal
+        int goal = row * columns + column;
+        distance[goal] = 0;
+        reached[0] = goal;
+        reachedCount = 1;
+        queue[0] = goal;
+        spreadFrom(1);
+    }
+
+    /**
+     * A cell has just been dug out: let paths through it reach the hero.
+     */
+    public void cellOpened(int column, int row)
+    {
+        if (goalColumn < 0 || column < 0 || column >= columns || row < 0 || row >= rows)
+        {
+            return;
+        }
+
+        // Find the neighbour that is closest to the hero
+        int cell = row * columns + column;
+        for (int way = RIGHT; way <= UP; way += 1)
+        {
+            int neighbourColumn = column + COLUMN_STEP[way];
+            int neighbourRow = row + ROW_STEP[way];
+            if (isInside(neighbourColumn, neighbourRow))
+            {
+                int neighbourDistance = distance[neighbourRow * columns + neighbourColumn];
+                if (neighbourDistance != UNREACHED && neighbourDistance + 1 < distance[cell])
+                {
+                    if (distance[cell] == UNREACHED)
+                    {
+                        reached[reachedCount] = cell;
+                        reachedCount += 1;
+                    }
+                    distance[cell] = neighbourDistance + 1;
+                    direction[cell] = (byte) way;
+                }
+            }
+        }
+
+        // Spread any shorter distances onwards from this cell
+        if (distance[cell] != UNREACHED)
+        {
+            queue[0] = cell;
+            spreadFrom(1);
+        }
+    }
+
+    /**
+     * Which way to step from the given cell to get closer to the hero:
+     * RIGHT, LEFT, DOWN or UP, or NONE when already there or there is no way through.
+     */
+    public int getDirection(int column, int row)
+    {
+        if (!isInside(column, row))
+        {
+            return NONE;
+        }
+        return direction[row * columns + column];
+    }
+
+    /**
+     * Number of steps from the given cell to the hero, or -1 if there is no way through.
+     */
+    public int getDistance(int column, int row)
+    {
+        if (!isInside(column, row) || distance[row * columns + column] == UNREACHED)
+        {
+            return -1;
+        }
+        return distance[row * columns + column];
+    }
+
+    /**
+     * Column change for a direction.
+     */
+    public static int getColumnStep(int way)
+    {
+        return COLUMN_STEP[way];
+    }
+
+    /**
+     * Row change for a direction.
+     */
+    public static int getRowStep(int way)
+    {
+        return ROW_STEP[way];
+    }
+
+    /**
+     * Breadth-first search from the first cells in the queue, giving each open
+     * neighbour a shorter distance where it can.
+     *
+     * Distances only ever shrink, and each cell is queued at most once per search.
+     */
+    private void spreadFrom(int tail)
+    {
+        int head = 0;
+        while (head < tail)
+        {
+            int cell = queue[head];
+            head += 1;
+            int column = cell % columns;
+            int row = cell / columns;
+            int nextDistance = distance[cell] + 1;
+
+            for (int way = RIGHT; way <= UP; way += 1)
+            {
+                int neighbourColumn = column + COLUMN_STEP[way];
+                int neighbourRow = row + ROW_STEP[way];
+                if (isInside(neighbourColumn, neighbourRow) && !simulation.isSolid(neighbourColumn, neighbourRow))
+                {
+                    int neighbour = neighbourRow * columns + neighbourColumn;
+                    if (nextDistance < distance[neighbour])
+                    {
+                        if (distance[neighbour] == UNREACHED)
+                        {
+                            reached[reachedCount] = neighbour;
+                            reachedCount += 1;
+                        }
+                        distance[neighbour] = nextDistance;
+
+                        // Step back the opposite way: from the neighbour towards this cell
+                        direction[neighbour] = (byte) opposite(way);
+                        queue[tail] = neighbour;
+                        tail += 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The direction that undoes the given one.
+     */
+    private static int opposite(int way)
+    {
+        if (way == RIGHT)
+        {
+            return LEFT;
+        }
+        else if (way == LEFT)
+        {
+            return RIGHT;
+        }
+        else if (way == DOWN)
+        {
+            return UP;
+        }
+        return DOWN;
+    }
+
+    /**
+     * Is the given cell inside the level?
+     */
+    private boolean isInside(int column, int row)
+    {
+        return column >= 0 && column < columns && row >= 0 && row < rows;
+    }
+}
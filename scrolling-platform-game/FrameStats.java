@@ -0,0 +1,288 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records where each frame's time goes, so slow levels can be profiled.
+ *
+ * Each part of a frame (the hero, the enemies, moving the camera, and so on) is a
+ * section, timed with begin() and end(). A section may be timed several times in a
+ * frame (the hero and enemies move once per simulation tick, and a frame can hold
+ * more than one tick, or none), so its times are added up over the frame, and at the
+ * end of the frame the total goes into a histogram per section. Every section so has
+ * exactly one time per frame, and all the figures are per frame. The buckets double
+ * in width: bucket 0 holds times under 1 microsecond, bucket 1 times under 2, bucket
+ * 2 under 4, and so on, with the last bucket holding the rest.
+ * At the end of each frame, endFrame() also records the number of collision queries,
+ * the number of actors and (where the Java runtime can say) the bytes allocated.
+ *
+ * Recording costs a few calls to System.nanoTime() per frame, so it is always on.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class FrameStats
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Sections of a frame
+    public static final int HERO = 0;
+    public static final int ENEMIES = 1;
+    public static final int CAMERA = 2;
+    public static final int CHUNKS = 3;
+    public static final int ACTORS = 4;
+    public static final int FRAME = 5;
+    private static final String[] SECTION_NAMES = { "hero", "enemies", "camera", "chunks", "actors", "frame" };
+
+    // Number of histogram buckets (the last one holds anything 2^18 microseconds or longer)
+    private static final int BUCKETS = 20;
+
+    // Per-thread allocation counter, if this Java runtime has one (null if not)
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = findAllocationCounter();
+
+    // Per section: the histogram, the total and longest time per frame, the time so far in
+    // this frame, and when the current timing began
+    private long[][] histograms;
+    private long[] totalNanos;
+    private long[] maxNanos;
+    private long[] frameNanos;
+    private long[] startNanos;
+
+    // Number of frames recorded
+    private int frames;
+
+    // Collision queries: the running total seen at the end of the last frame, and the most in one frame
+    private long lastCollisionQueries;
+    private long collisionQueries;
+    private long maxCollisionQueries;
+
+    // Actors in the world at the end of the last frame
+    private int actorCount;
+
+    // Bytes allocated: at the start of this frame, in total, and in the last frame (-1 if unknown)
+    private long frameStartAllocated;
+    private long allocatedBytes;
+    private long lastAllocatedBytes;
+
+    /**
+     * Constructor
+     *
+     * Starts with nothing recorded.
+     */
+    public FrameStats()
+    {
+        reset();
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset()
+    {
+        histograms = new long[SECTION_NAMES.length][BUCKETS];
+        totalNanos = new long[SECTION_NAMES.length];
+        maxNanos = new long[SECTION_NAMES.length];
+        frameNanos = new long[SECTION_NAMES.length];
+        startNanos = new long[SECTION_NAMES.length];
+        frames = 0;
+        collisionQueries = 0;
+        maxCollisionQueries = 0;
+        allocatedBytes = 0;
+        lastAllocatedBytes = -1;
+    }
+
+    /**
+     * Start timing a section.
+     */
+    public void begin(int section)
+    {
+        if (section == FRAME)
+        {
+            frameStartAllocated = getAllocatedBytes();
+        }
+        startNanos[section] = System.nanoTime();
+    }
+
+    /**
+     * Stop timing a section, and add the time to the section's total for this frame.
+     */
+    public void end(int section)
+    {
+        frameNanos[section] += System.nanoTime() - startNanos[section];
+    }
+
+    /**
+     * Finish the frame: stop timing it, add each section's time in the frame to its
+     * histogram, and record the counts that go with the frame.
+     *
+     * The collision queries are a running total (such as Simulation.getCollisionQueries()).
+     */
+    public void endFrame(long totalCollisionQueries, int actors)
+    {
+        end(FRAME);
+        frames += 1;
+
+        for (int section = 0; section < SECTION_NAMES.length; section += 1)
+        {
+            long elapsed = frameNanos[section];
+            frameNanos[section] = 0;
+            totalNanos[section] += elapsed;
+            maxNanos[section] = Math.max(maxNanos[section], elapsed);
+
+            // Bucket b holds times under 2^b microseconds
+            long micros = elapsed / 1000;
+            int bucket = 64 - Long.numberOfLeadingZeros(micros);
+            histograms[section][Math.min(bucket, BUCKETS - 1)] += 1;
+        }
+
+        long queries = totalCollisionQueries - lastCollisionQueries;
+        lastCollisionQueries = totalCollisionQueries;
+        collisionQueries += queries;
+        maxCollisionQueries = Math.max(maxCollisionQueries, queries);
+
+        actorCount = actors;
+
+        if (frameStartAllocated >= 0)
+        {
+            lastAllocatedBytes = getAllocatedBytes() - frameStartAllocated;
+            allocatedBytes += lastAllocatedBytes;
+        }
+    }
+
+    /**
+     * Number of frames recorded.
+     */
+    public int getFrames()
+    {
+        return frames;
+    }
+
+    /**
+     * Average time spent in a section per frame, in microseconds.
+     */
+    public double getMeanMicros(int section)
+    {
+        if (frames == 0)
+        {
+            return 0;
+        }
+        return totalNanos[section] / 1000.0 / frames;
+    }
+
+    /**
+     * A time (in microseconds) that the given percentage of frames spent less than in a section.
+     *
+     * This is the top of the histogram bucket the percentage falls in, so it is an upper bound.
+     */
+    public long getPercentileMicros(int section, double percent)
+    {
+        long count = 0;
+        for (long inBucket : histograms[section])
+        {
+            count += inBucket;
+        }
+        if (count == 0)
+        {
+            return 0;
+        }
+
+        long wanted = (long) Math.ceil(count * percent / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS - 1; bucket += 1)
+        {
+            seen += histograms[section][bucket];
+            if (seen >= wanted)
+            {
+                return 1L << bucket;
+            }
+        }
+        return maxNanos[section] / 1000;
+    }
+
+    /**
+     * A few lines summing up the frames so far, for showing on screen.
+     */
+    public String[] describe()
+    {
+        String[] lines = new String[SECTION_NAMES.length + 2];
+        for (int section = 0; section < SECTION_NAMES.length; section += 1)
+        {
+            lines[section] = String.format("%-8s %7.1f us  p95 <%6d us", SECTION_NAMES[section],
+                                           getMeanMicros(section), getPercentileMicros(section, 95));
+        }
+        lines[SECTION_NAMES.length] = "actors " + actorCount + "   collision queries "
+                                      + (frames == 0 ? 0 : collisionQueries / frames) + "/frame";
+        lines[SECTION_NAMES.length + 1] = "allocated "
+                                          + (lastAllocatedBytes < 0 ? "unknown" : (lastAllocatedBytes / 1024) + " KB last frame");
+        return lines;
+    }
+
+    /**
+     * Write everything recorded to a CSV file: one row per section with its histogram,
+     * then one row per frame-wide count.
+     */
+    public void writeCsv(String fileName) throws IOException
+    {
+        try (PrintWriter out = new PrintWriter(new FileWriter(fileName)))
+        {
+            // Header
+            out.print("section,frames,mean_us,p50_us,p95_us,p99_us,max_us");
+            for (int bucket = 0; bucket < BUCKETS - 1; bucket += 1)
+            {
+                out.print(",under_" + (1L << bucket) + "_us");
+            }
+            out.println(",longer");
+
+            // One row per section
+            for (int section = 0; section < SECTION_NAMES.length; section += 1)
+            {
+                out.print(SECTION_NAMES[section] + "," + frames + "," + String.format("%.2f", getMeanMicros(section))
+                          + "," + getPercentileMicros(section, 50) + "," + getPercentileMicros(section, 95)
+                          + "," + getPercentileMicros(section, 99) + "," + maxNanos[section] / 1000);
+                for (long inBucket : histograms[section])
+                {
+                    out.print("," + inBucket);
+                }
+                out.println();
+            }
+
+            // Frame-wide counts: name, frames, mean per frame, then the most in one frame (or the latest)
+            out.println("collision_queries," + frames + "," + (frames == 0 ? 0 : collisionQueries / frames) + ",,,," + maxCollisionQueries);
+            out.println("actors," + frames + "," + actorCount + ",,,," + actorCount);
+            out.println("allocated_bytes," + frames + "," + (frames == 0 ? 0 : allocatedBytes / frames) + ",,,," + lastAllocatedBytes);
+        }
+    }
+
+    /**
+     * Bytes allocated by this thread so far, or -1 if the Java runtime can't say.
+     */
+    private static long getAllocatedBytes()
+    {
+        if (ALLOCATION_COUNTER == null)
+        {
+            return -1;
+        }
+        return ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Find the runtime's per-thread allocation counter, if it has one.
+     */
+    private static com.sun.management.ThreadMXBean findAllocationCounter()
+    {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled())
+            {
+                return counter;
+            }
+        }
+        return null;
+    }
+}
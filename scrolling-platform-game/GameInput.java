@@ -0,0 +1,36 @@
+/**
+ * Where the hero's controls come from on each tick of the simulation.
+ *
+ * In the game this is the keyboard; headless runs can supply scripted input instead,
+ * and a recorded session can be played back with ReplayInput.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public interface GameInput
+{
+    /**
+     * A new tick is starting (called by the simulation before it asks about any control).
+     *
+     * Inputs that change from tick to tick, such as a recording being played back,
+     * move on to the next tick here.
+     */
+    default void nextTick()
+    {
+    }
+
+    /**
+     * Is the "left" control held down this tick?
+     */
+    boolean isLeftDown();
+
+    /**
+     * Is the "right" control held down this tick?
+     */
+    boolean isRightDown();
+
+    /**
+     * Is the "up" control held down this tick?
+     */
+    boolean isUpDown();
+}
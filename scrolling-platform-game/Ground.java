@@ -1,29 +1,239 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.util.Arrays;
 
 /**
- * Write a description of class Ground here.
- * 
- * @author (your name) 
- * @version (a version number or a date)
+ * A run of columns of the level's terrain (dirt and metal plates), drawn as a single actor.
+ *
+ * Which parts of each cell still have dirt is kept in the level's DigMask; each Ground
+ * shows the columns of it that fall in one level chunk. The image is drawn once when the
+ * chunk is loaded. After that, a cell that changes (such as one being dug) is only
+ * marked dirty, and redrawDirty() redraws just the dirty cells, once per frame. The
+ * cost of keeping the terrain on screen follows how much of it changed, not how big
+ * it is.
+ *
+ * The ground's top-left corner is at the top of the level, so rows of its image
+ * are rows of the level.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
  */
 public class Ground extends Platform
 {
-   /**
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // The layout of the level (for the metal plates), and which dots still have dirt in them
+    private LevelData level;
+    private DigMask mask;
+
+    // The columns of the terrain that this ground shows
+    private int firstTerrainColumn;
+    private int columnCount;
+
+    // Cells (column * rows + row, counted within this ground) to redraw at the end of the frame
+    private int[] dirtyCells;
+    private int dirtyCount;
+    private boolean[] isDirty;
+
+    /**
      * Constructor
-     * 
+     *
      * Called once when object is created.
      */
-    Ground(int scrollableWorldX, int scrollableWorldY)
+    Ground(int scrollableWorldX, int scrollableWorldY, LevelData level, DigMask mask,
+           int firstTerrainColumn, int columnCount)
     {
         super(scrollableWorldX, scrollableWorldY);
+        dirtyCells = new int[16];
+        show(level, mask, firstTerrainColumn, columnCount);
+    }
+
+    /**
+     * Use this ground again, somewhere else (see TilePool): move it to the given position
+     * and redraw it to show the given columns.
+     */
+    public void reuse(int scrollableWorldX, int scrollableWorldY, LevelData level, DigMask mask,
+                      int firstTerrainColumn, int columnCount)
+    {
+        moveTo(scrollableWorldX, scrollableWorldY);
+        show(level, mask, firstTerrainColumn, columnCount);
+    }
+
+    /**
+     * Could this ground be reused to show the given number of columns of the given dirt
+     * without making a new image?
+     */
+    public boolean fits(DigMask mask, int columnCount)
+    {
+        return getImage() != null
+               && getImage().getWidth() == columnCount * SideScrollingWorld.TILE_SIZE
+               && getImage().getHeight() == mask.getRows() * SideScrollingWorld.TILE_SIZE;
+    }
+
+    /**
+     * Show the given columns of the level, drawing every metal plate and the dirt left
+     * in every cell (into the image this ground already has, if it is the right size).
+     */
+    private void show(LevelData level, DigMask mask, int firstTerrainColumn, int columnCount)
+    {
+        boolean fits = fits(mask, columnCount);
+        this.level = level;
+        this.mask = mask;
+        this.firstTerrainColumn = firstTerrainColumn;
+        this.columnCount = columnCount;
+        dirtyCount = 0;
+        if (isDirty == null || isDirty.length != columnCount * mask.getRows())
+        {
+            isDirty = new boolean[columnCount * mask.getRows()];
+        }
+        else
+        {
+            Arrays.fill(isDirty, false);
+        }
+
+        GreenfootImage image = getImage();
+        if (!fits)
+        {
+            image = new GreenfootImage(columnCount * SideScrollingWorld.TILE_SIZE,
+                                       mask.getRows() * SideScrollingWorld.TILE_SIZE);
+        }
+        Graphics2D graphics = image.getAwtImage().createGraphics();
+        for (int column = 0; column < columnCount; column += 1)
+        {
+            for (int row = 0; row < mask.getRows(); row += 1)
+            {
+                drawCell(graphics, column, row);
+            }
+        }
+        graphics.dispose();
+        setImage(image);
     }
 
     /**
      * Act - do whatever the Ground wants to do. This method is called whenever
      * the 'Act' or 'Run' button gets pressed in the environment.
      */
-    public void act() 
+    public void act()
     {
         // Add your action code here.
-    }    
+    }
+
+    /**
+     * Return the dirt behind this ground.
+     */
+    public DigMask getMask()
+    {
+        return mask;
+    }
+
+    /**
+     * Does this ground show the given column of the level?
+     */
+    public boolean showsColumn(int column)
+    {
+        return column >= firstTerrainColumn && column < firstTerrainColumn + columnCount;
+    }
+
+    /**
+     * Mark one cell (given by its column and row in the level) to be redrawn at the end of the frame.
+     *
+     * Returns true if nothing in this ground was dirty before (so the world knows to
+     * call redrawDirty() this frame).
+     */
+    public boolean markDirty(int column, int row)
+    {
+        int cell = (column - firstTerrainColumn) * mask.getRows() + row;
+        if (isDirty[cell])
+        {
+            return false;
+        }
+        isDirty[cell] = true;
+        if (dirtyCount == dirtyCells.length)
+        {
+            dirtyCells = Arrays.copyOf(dirtyCells, dirtyCount * 2);
+        }
+        dirtyCells[dirtyCount] = cell;
+        dirtyCount += 1;
+        return dirtyCount == 1;
+    }
+
+    /**
+     * Redraw the cells marked dirty since the last redraw, and only those.
+     */
+    public void redrawDirty()
+    {
+        if (dirtyCount == 0)
+        {
+            return;
+        }
+
+        Graphics2D graphics = getImage().getAwtImage().createGraphics();
+        for (int i = 0; i < dirtyCount; i += 1)
+        {
+            int cell = dirtyCells[i];
+            isDirty[cell] = false;
+            drawCell(graphics, cell / mask.getRows(), cell % mask.getRows());
+        }
+        graphics.dispose();
+        dirtyCount = 0;
+    }
+
+    /**
+     * Number of cells waiting to be redrawn.
+     */
+    public int getDirtyCount()
+    {
+        return dirtyCount;
+    }
+
+    /**
+     * Wipe one cell of the image (given by its column within this ground, and row),
+     * and draw it as it is now: a metal plate, or whatever dirt is left.
+     */
+    private void drawCell(Graphics2D graphics, int column, int row)
+    {
+        int levelColumn = firstTerrainColumn + column;
+        int x = column * SideScrollingWorld.TILE_SIZE;
+        int y = row * SideScrollingWorld.TILE_SIZE;
+        graphics.setComposite(AlphaComposite.Clear);
+        graphics.fillRect(x, y, SideScrollingWorld.TILE_SIZE, SideScrollingWorld.TILE_SIZE);
+        graphics.setComposite(AlphaComposite.SrcOver);
+
+        byte tile = level.getTile(levelColumn, row);
+        if (tile == LevelData.METAL)
+        {
+            graphics.drawImage(Sprites.get(Sprites.METAL_PLATE).getAwtImage(), x, y, null);
+        }
+        else if (tile == LevelData.GROUND && mask.getCarved(levelColumn, row) < DigMask.DOTS_IN_CELL)
+        {
+            graphics.drawImage(Sprites.get(Sprites.GROUND).getAwtImage(), x, y, null);
+
+            // Cut out each run of carved dots, a row of dots at a time
+            graphics.setComposite(AlphaComposite.Clear);
+            for (int dotRow = 0; dotRow < DigMask.DOTS_PER_CELL; dotRow += 1)
+            {
+                int dirt = mask.getDotRow(levelColumn, row, dotRow);
+                int dot = 0;
+                while (dot < DigMask.DOTS_PER_CELL)
+                {
+                    if ((dirt & (1 << dot)) != 0)
+                    {
+                        dot += 1;
+                        continue;
+                    }
+                    int runStart = dot;
+                    while (dot < DigMask.DOTS_PER_CELL && (dirt & (1 << dot)) == 0)
+                    {
+                        dot += 1;
+                    }
+                    graphics.fillRect(x + runStart * DigMask.DOT_SIZE, y + dotRow * DigMask.DOT_SIZE,
+                                      (dot - runStart) * DigMask.DOT_SIZE, DigMask.DOT_SIZE);
+                }
+            }
+        }
+    }
 }
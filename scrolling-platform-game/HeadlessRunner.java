@@ -0,0 +1,180 @@
+/**
+ * Runs the game without a display, as fast as it will go, for soak tests and
+ * benchmarks.
+ *
+ * The hero is driven by a simple script: walk right for a while, then left,
+ * pressing "up" now and then. When the run finishes, it reports how many ticks
+ * were run per second and how much ground was dug.
+ *
+ * It can instead play back a session recorded in the game (see InputRecording),
+ * reproducing it tick for tick as fast as it will go, and report (or save as CSV)
+ * where the time went. Playing back the same recording on two versions of the game
+ * compares how much each tick costs.
+ *
+ * To use, from a terminal in the scenario folder (no Greenfoot needed):
+ *
+ *   javac HeadlessRunner.java
+ *   java HeadlessRunner levels/level1.lvl 100000
+ *   java HeadlessRunner --replay session.rec [frame-stats.csv]
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class HeadlessRunner implements GameInput
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // How long the hero walks each way, and how often "up" is pressed, in ticks
+    private static final int WALK_TICKS = 600;
+    private static final int UP_EVERY = 45;
+    private static final int UP_TICKS = 6;
+
+    // The game being run, and where its controls come from
+    private Simulation simulation;
+    private GameInput input;
+
+    /**
+     * Run from a terminal: java HeadlessRunner [level file] [ticks]
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length > 1 && args[0].equals("--replay"))
+        {
+            replay(args[1], args.length > 2 ? args[2] : null);
+            return;
+        }
+
+        String levelFile = args.length > 0 ? args[0] : "levels/level1.lvl";
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+        HeadlessRunner runner = new HeadlessRunner(LevelData.load(levelFile));
+        long startTime = System.nanoTime();
+        int ran = runner.run(ticks);
+        long elapsed = System.nanoTime() - startTime;
+
+        Simulation simulation = runner.getSimulation();
+        System.out.println("Ran " + ran + " ticks in " + (elapsed / 1000000) + " ms ("
+                           + (long) (ran / (elapsed / 1e9)) + " ticks per second)");
+        System.out.println("Dug " + simulation.getHero().getGroundDugged() + " cells, "
+                           + simulation.getTerrain().getRemaining() + " left"
+                           + (simulation.isLevelComplete() ? " (level complete)" : ""));
+    }
+
+    /**
+     * Play back a recorded session as fast as possible, and report where the time went
+     * (also saved to the given CSV file, unless it is null).
+     */
+    public static void replay(String recordingFile, String statsFile) throws Exception
+    {
+        InputRecording recording = InputRecording.load(recordingFile);
+        ReplayInput input = new ReplayInput(recording);
+        HeadlessRunner runner = new HeadlessRunner(LevelData.load(recording.getLevelFile()), input);
+        Simulation simulation = runner.getSimulation();
+        if (recording.getStart() != null)
+        {
+            // Play started from a snapshot, not the start of the level
+            recording.getStart().restore(simulation);
+        }
+        FrameStats stats = new FrameStats();
+        simulation.setFrameStats(stats);
+
+        // One frame per tick, with no waiting in between
+        long startTime = System.nanoTime();
+        while (input.hasMoreTicks())
+        {
+            stats.begin(FrameStats.FRAME);
+            simulation.step(input);
+            stats.endFrame(simulation.getCollisionQueries(), 1 + simulation.getEntities().getCount());
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        System.out.println("Replayed " + recording.getTicks() + " ticks (" + (recording.getTicks() / FixedTimestep.TICKS_PER_SECOND)
+                           + " s of play) in " + (elapsed / 1000000) + " ms");
+        System.out.println("Dug " + simulation.getHero().getGroundDugged() + " cells, hero finished at ("
+                           + simulation.getHero().getX() + ", " + simulation.getHero().getY() + ")");
+        for (String line : stats.describe())
+        {
+            System.out.println(line);
+        }
+        if (statsFile != null)
+        {
+            stats.writeCsv(statsFile);
+            System.out.println("Frame timings saved to " + statsFile);
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * Starts a new game on the given level, with the hero following the script.
+     */
+    public HeadlessRunner(LevelData level)
+    {
+        simulation = new Simulation(level);
+        input = this;
+    }
+
+    /**
+     * Constructor
+     *
+     * Starts a new game on the given level, with the hero's controls coming from the given input.
+     */
+    public HeadlessRunner(LevelData level, GameInput input)
+    {
+        simulation = new Simulation(level);
+        this.input = input;
+    }
+
+    /**
+     * Step the game up to the given number of ticks, stopping early if the level is completed.
+     *
+     * Returns the number of ticks that were run.
+     */
+    public int run(int ticks)
+    {
+        for (int i = 0; i < ticks; i += 1)
+        {
+            simulation.step(input);
+            if (simulation.isLevelComplete())
+            {
+                return i + 1;
+            }
+        }
+        return ticks;
+    }
+
+    /**
+     * The game being run.
+     */
+    public Simulation getSimulation()
+    {
+        return simulation;
+    }
+
+    /**
+     * Walk left for every other stretch of WALK_TICKS.
+     */
+    public boolean isLeftDown()
+    {
+        return (simulation.getTick() / WALK_TICKS) % 2 == 1;
+    }
+
+    /**
+     * Walk right for every other stretch of WALK_TICKS.
+     */
+    public boolean isRightDown()
+    {
+        return (simulation.getTick() / WALK_TICKS) % 2 == 0;
+    }
+
+    /**
+     * Press "up" for a few ticks every so often.
+     */
+    public boolean isUpDown()
+    {
+        return simulation.getTick() % UP_EVERY < UP_TICKS;
+    }
+}
@@ -0,0 +1,466 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The hero's state and movement rules, with nothing to do with drawing.
+ *
+ * Taizo shows a Hero on screen.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Hero
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Size of the hero, in pixels (the size of the hero's images)
+    public static final int WIDTH = 31;
+    public static final int HEIGHT = 32;
+
+    // Poses for the hero's image: standing, or a stage of the walking animation (0, 1, ...)
+    public static final int STANDING = -1;
+    public static final int COUNT_OF_WALKING_IMAGES = 2;
+    private static final int WALK_ANIMATION_DELAY = 8;
+
+    // Constants to track vertical direction
+    private static final String JUMPING_UP = "up";
+    private static final String JUMPING_DOWN = "down";
+
+    // Constants to track horizontal direction
+    private static final String FACING_RIGHT = "right";
+    private static final String FACING_LEFT = "left";
+
+    // Position of the hero's centre in the scrollable world
+    private int x;
+    private int y;
+
+    // Position at the start of the last tick (to draw the hero between ticks)
+    private int previousX;
+    private int previousY;
+
+    // Variable for how much ground has been removed/dugged
+    private int groundDugged;
+
+    // Horizontal speed (change in horizontal position, or delta X)
+    private int deltaX = 4;
+
+    // Vertical speed (change in vertical position, or delta Y)
+    private int deltaY = 4;
+
+    // Acceleration for falls
+    private int acceleration = 1;
+
+    // Strength of a jump
+    private int jumpStrength = -24;
+
+    // Directions
+    private String verticalDirection;
+    private String horizontalDirection;
+
+    // Which image to show, and whether it is mirrored (facing left)
+    private int pose;
+    private boolean poseMirrored;
+
+    // For walking animation
+    private int walkingFrames;
+
+    // How fast "up" lifts the hero, in pixels per tick
+    private int climbSpeed = 3;
+
+    // Whether "up" is held this tick, and whether the hero ended the last tick standing on something
+    private boolean climbing;
+    private boolean standing;
+
+    /**
+     * Constructor
+     *
+     * Creates a hero with its centre at the given position.
+     */
+    public Hero(int startingX, int startingY)
+    {
+        x = startingX;
+        y = startingY;
+        previousX = x;
+        previousY = y;
+
+        // First jump will be in 'down' direction
+        verticalDirection = JUMPING_DOWN;
+
+        // Facing right to start
+        horizontalDirection = FACING_RIGHT;
+        pose = STANDING;
+        poseMirrored = false;
+
+        // Track animation frames for walking
+        walkingFrames = 0;
+
+        // Not standing on anything until the first tick says so
+        climbing = false;
+        standing = false;
+    }
+
+    /**
+     * Advance the hero by one tick.
+     *
+     * The hero moves across first, then up or down. Each move is swept against
+     * what is in the way (see Simulation.sweepDown() and friends), so the hero stops
+     * exactly at whatever it would hit, however fast it is going, and its position
+     * is worked out once per tick.
+     *
+     * As in the original game, the hero stands on dirt rather than digging down through
+     * it: falls stop on dirt just as on metal. The hero digs out whatever it walks or
+     * climbs into.
+     */
+    public void step(Simulation simulation, GameInput input)
+    {
+        previousX = x;
+        previousY = y;
+        checkKeys(simulation, input);
+        checkFall(simulation, input);
+        groundCollision(simulation);
+    }
+
+    /**
+     * Respond to the controls.
+     */
+    private void checkKeys(Simulation simulation, GameInput input)
+    {
+        // No moving once the level is over
+        boolean isGameOver = simulation.isLevelComplete();
+
+        // Walking keys
+        if (input.isLeftDown() && !isGameOver)
+        {
+            moveLeft(simulation);
+        }
+        else if (input.isRightDown() && !isGameOver)
+        {
+            moveRight(simulation);
+        }
+        else
+        {
+            // Standing still; reset walking animation
+            walkingFrames = 0;
+        }
+        climbing = input.isUpDown() && !isGameOver;
+    }
+
+    /**
+     * Dig out whatever ground the hero is overlapping.
+     */
+    private void groundCollision(Simulation simulation)
+    {
+        groundDugged = groundDugged + simulation.dig(getLeft(), getTop(), getLeft() + WIDTH, getTop() + HEIGHT);
+    }
+
+    /**
+     * Move the hero up or down: lifted while "up" is held, held up by whatever is
+     * underneath, or else falling faster and faster until it lands.
+     */
+    private void checkFall(Simulation simulation, GameInput input)
+    {
+        int left = getLeft();
+        int right = getLeft() + WIDTH;
+        if (climbing)
+        {
+            // Lift, stopping under any metal plate above
+            int ceiling = simulation.sweepUp(left, right, getTop(), climbSpeed);
+            y = ceiling == Simulation.NOT_SOLID ? y - climbSpeed : ceiling + HEIGHT / 2;
+            deltaY = acceleration;
+            standing = false;
+            return;
+        }
+
+        // Is the hero already on something (nothing can be between their feet and it)?
+        if (simulation.sweepDown(left, right, getTop() + HEIGHT, 1) != Simulation.NOT_SOLID)
+        {
+            land(input);
+            return;
+        }
+
+        // Fall, stopping on whatever is first in the way
+        fall();
+        int floor = simulation.sweepDown(left, right, getTop() + HEIGHT, deltaY);
+        if (floor == Simulation.NOT_SOLID)
+        {
+            y = y + deltaY;
+            deltaY = deltaY + acceleration;
+            standing = false;
+        }
+        else
+        {
+            y = floor - HEIGHT / 2;
+            land(input);
+        }
+    }
+
+    /**
+     * The hero is standing on something: stop falling, and stand still unless walking.
+     */
+    private void land(GameInput input)
+    {
+        deltaY = 0;
+        standing = true;
+
+        // Set image
+        if (horizontalDirection == FACING_RIGHT && input.isRightDown() == false)
+        {
+            setPose(STANDING, false);
+        }
+        else if (horizontalDirection == FACING_LEFT && input.isLeftDown() == false)
+        {
+            setPose(STANDING, false);
+        }
+    }
+
+    /**
+     * Was the hero standing on something at the end of the last tick?
+     */
+    public boolean onPlatform()
+    {
+        return standing;
+    }
+
+    /**
+     * The hero is falling: face the right way for it.
+     */
+    private void fall()
+    {
+        // See if direction has changed
+        if (deltaY > 0)
+        {
+            verticalDirection = JUMPING_DOWN;
+
+            // Set image
+            setPose(STANDING, false);
+        }
+
+        // The fall itself (and speeding up for next time) is done by checkFall(),
+        // once it knows how far the hero can go
+    }
+
+    /**
+     * Animate walking
+     */
+    private void animateWalk(String direction)
+    {
+        // Track walking animation frames
+        walkingFrames += 1;
+
+        // Get current animation stage
+        int stage = walkingFrames / WALK_ANIMATION_DELAY;
+
+        // Animate
+        if (stage < COUNT_OF_WALKING_IMAGES)
+        {
+            // Set image for this stage of the animation
+            setPose(stage, direction == FACING_LEFT);
+        }
+        else
+        {
+            // Start animation loop from beginning
+            walkingFrames = 0;
+        }
+    }
+
+    /**
+     * Move the hero to the right.
+     */
+    private void moveRight(Simulation simulation)
+    {
+        // Track direction
+        horizontalDirection = FACING_RIGHT;
+
+        // Set image
+        if (onPlatform())
+        {
+            animateWalk(horizontalDirection);
+        }
+
+        // Stop against any metal plate in the way, and at the right edge of the scrollable world
+        int wall = simulation.sweepAcross(getTop(), getTop() + HEIGHT, getLeft() + WIDTH, deltaX);
+        int newX = wall == Simulation.NOT_SOLID ? x + deltaX : wall - (WIDTH - WIDTH / 2);
+        x = Math.min(newX, simulation.getWidth() - (WIDTH - WIDTH / 2));
+    }
+
+    /**
+     * Move the hero to the left.
+     */
+    private void moveLeft(Simulation simulation)
+    {
+        // Track direction
+        horizontalDirection = FACING_LEFT;
+
+        // Set image
+        if (onPlatform())
+        {
+            animateWalk(horizontalDirection);
+        }
+
+        // Stop against any metal plate in the way, and at the left edge of the scrollable world
+        int wall = simulation.sweepAcross(getTop(), getTop() + HEIGHT, getLeft(), -deltaX);
+        int newX = wall == Simulation.NOT_SOLID ? x - deltaX : wall + WIDTH / 2;
+        x = Math.max(newX, WIDTH / 2);
+    }
+
+    /**
+     * Choose which image to show.
+     */
+    private void setPose(int newPose, boolean mirrored)
+    {
+        pose = newPose;
+        poseMirrored = mirrored;
+    }
+
+    /**
+     * Left edge of the hero.
+     */
+    private int getLeft()
+    {
+        return x - WIDTH / 2;
+    }
+
+    /**
+     * Top edge of the hero.
+     */
+    private int getTop()
+    {
+        return y - HEIGHT / 2;
+    }
+
+    /**
+     * Horizontal position of the hero's centre in the scrollable world.
+     */
+    public int getX()
+    {
+        return x;
+    }
+
+    /**
+     * Vertical position of the hero's centre in the scrollable world.
+     */
+    public int getY()
+    {
+        return y;
+    }
+
+    /**
+     * Horizontal position of the hero's centre, the given fraction of the way
+     * from where it was at the start of the last tick to where it is now.
+     */
+    public int getX(double alpha)
+    {
+        return previousX + (int) Math.round((x - previousX) * alpha);
+    }
+
+    /**
+     * Vertical position of the hero's centre, the given fraction of the way
+     * from where it was at the start of the last tick to where it is now.
+     */
+    public int getY(double alpha)
+    {
+        return previousY + (int) Math.round((y - previousY) * alpha);
+    }
+
+    /**
+     * Write everything about the hero that changes as the game goes on, for a Snapshot.
+     */
+    public void writeState(DataOutputStream out) throws IOException
+    {
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeInt(previousX);
+        out.writeInt(previousY);
+        out.writeInt(groundDugged);
+        out.writeInt(deltaY);
+        out.writeBoolean(verticalDirection.equals(JUMPING_UP));
+        out.writeBoolean(horizontalDirection.equals(FACING_LEFT));
+        out.writeInt(pose);
+        out.writeBoolean(poseMirrored);
+        out.writeInt(walkingFrames);
+        out.writeBoolean(standing);
+    }
+
+    /**
+     * Read a hero written by writeState() and check it is inside a level of the given
+     * size (in pixels), without changing anything.
+     */
+    public static void checkState(DataInputStream in, int levelWidth, int levelHeight) throws IOException
+    {
+        int stateX = in.readInt();
+        int stateY = in.readInt();
+        if (stateX < 0 || stateX >= levelWidth || stateY < 0 || stateY >= levelHeight)
+        {
+            throw new IOException("Hero outside the level at (" + stateX + ", " + stateY + ")");
+        }
+        in.readInt();
+        in.readInt();
+        in.readInt();
+        in.readInt();
+        in.readBoolean();
+        in.readBoolean();
+        int statePose = in.readInt();
+        if (statePose != STANDING && (statePose < 0 || statePose >= COUNT_OF_WALKING_IMAGES))
+        {
+            throw new IOException("Unknown pose " + statePose);
+        }
+        in.readBoolean();
+        in.readInt();
+        in.readBoolean();
+    }
+
+    /**
+     * Put the hero back the way writeState() found it.
+     */
+    public void readState(DataInputStream in) throws IOException
+    {
+        x = in.readInt();
+        y = in.readInt();
+        previousX = in.readInt();
+        previousY = in.readInt();
+        groundDugged = in.readInt();
+        deltaY = in.readInt();
+        verticalDirection = in.readBoolean() ? JUMPING_UP : JUMPING_DOWN;
+        horizontalDirection = in.readBoolean() ? FACING_LEFT : FACING_RIGHT;
+        pose = in.readInt();
+        poseMirrored = in.readBoolean();
+        walkingFrames = in.readInt();
+        standing = in.readBoolean();
+    }
+
+    /**
+     * Current vertical speed.
+     */
+    public int getDeltaY()
+    {
+        return deltaY;
+    }
+
+    /**
+     * How many cells of ground the hero has dug.
+     */
+    public int getGroundDugged()
+    {
+        return groundDugged;
+    }
+
+    /**
+     * Which image to show: STANDING, or a stage of the walking animation.
+     */
+    public int getPose()
+    {
+        return pose;
+    }
+
+    /**
+     * Should the image be mirrored (facing left)?
+     */
+    public boolean isPoseMirrored()
+    {
+        return poseMirrored;
+    }
+}
@@ -0,0 +1,260 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The controls held down on every tick of a game, kept so the game can be played back exactly.
+ *
+ * The controls on one tick are a few bits (LEFT, RIGHT and UP). Players hold the same
+ * controls for many ticks in a row, so the recording is stored as runs: the controls,
+ * and how many ticks in a row they were held. A ten-minute session is a few kilobytes.
+ *
+ * A recording starts either at the start of the level, or (after a snapshot has been
+ * restored in the game) from that snapshot, which is kept with it.
+ *
+ * File layout (big-endian):
+ *
+ *   magic "DIGR", version, level file name (as writeUTF),
+ *   starting snapshot size (0 for the start of the level) and data, run count
+ *   runs: run count x (controls as one byte, tick count as a variable-length number)
+ *
+ * A variable-length number is stored 7 bits per byte, lowest bits first, with the top
+ * bit of each byte set when more bytes follow.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class InputRecording
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Bits for each control
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int UP = 4;
+
+    // Identifies a recording file ("DIGR"), and which version of the layout it uses
+    private static final int MAGIC = 0x44494752;
+    private static final int VERSION = 2;
+
+    // The level that was played, and the snapshot play started from (null for the start of the level)
+    private String levelFile;
+    private Snapshot start;
+
+    // The runs: controls held, and for how many ticks
+    private byte[] runControls;
+    private int[] runLengths;
+    private int runCount;
+
+    // Total ticks recorded
+    private int ticks;
+
+    /**
+     * Constructor
+     *
+     * Starts an empty recording of a game on the given level, from the start of the level.
+     */
+    public InputRecording(String levelFile)
+    {
+        this(levelFile, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * Starts an empty recording of a game on the given level, from the given snapshot
+     * (or from the start of the level, if it is null).
+     */
+    public InputRecording(String levelFile, Snapshot start)
+    {
+        this.levelFile = levelFile;
+        this.start = start;
+        runControls = new byte[64];
+        runLengths = new int[64];
+        runCount = 0;
+        ticks = 0;
+    }
+
+    /**
+     * The controls held down on the given input right now, as LEFT, RIGHT and UP bits.
+     */
+    public static int controlsOf(GameInput input)
+    {
+        int controls = 0;
+        if (input.isLeftDown())
+        {
+            controls |= LEFT;
+        }
+        if (input.isRightDown())
+        {
+            controls |= RIGHT;
+        }
+        if (input.isUpDown())
+        {
+            controls |= UP;
+        }
+        return controls;
+    }
+
+    /**
+     * Add one tick with the given controls held down.
+     */
+    public void add(int controls)
+    {
+        if (runCount > 0 && runControls[runCount - 1] == controls)
+        {
+            runLengths[runCount - 1] += 1;
+        }
+        else
+        {
+            addRun(controls, 1);
+        }
+        ticks += 1;
+    }
+
+    /**
+     * Add a run to the end, making room for it if needed.
+     */
+    private void addRun(int controls, int length)
+    {
+        if (runCount == runLengths.length)
+        {
+            runControls = Arrays.copyOf(runControls, runCount * 2);
+            runLengths = Arrays.copyOf(runLengths, runCount * 2);
+        }
+        runControls[runCount] = (byte) controls;
+        runLengths[runCount] = length;
+        runCount += 1;
+    }
+
+    /**
+     * The level that was played.
+     */
+    public String getLevelFile()
+    {
+        return levelFile;
+    }
+
+    /**
+     * The snapshot play started from, or null if it started at the start of the level.
+     */
+    public Snapshot getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Number of ticks recorded.
+     */
+    public int getTicks()
+    {
+        return ticks;
+    }
+
+    /**
+     * Number of runs (stretches of ticks with the same controls held).
+     */
+    public int getRunCount()
+    {
+        return runCount;
+    }
+
+    /**
+     * The controls held during the given run.
+     */
+    public int getRunControls(int run)
+    {
+        return runControls[run];
+    }
+
+    /**
+     * Number of ticks in the given run.
+     */
+    public int getRunLength(int run)
+    {
+        return runLengths[run];
+    }
+
+    /**
+     * Write the recording to a file.
+     */
+    public void save(String fileName) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(levelFile);
+            byte[] startData = start == null ? new byte[0] : start.getData();
+            out.writeInt(startData.length);
+            out.write(startData);
+            out.writeInt(runCount);
+            for (int run = 0; run < runCount; run += 1)
+            {
+                out.writeByte(runControls[run]);
+                int length = runLengths[run];
+                while (length >= 0x80)
+                {
+                    out.writeByte((length & 0x7F) | 0x80);
+                    length >>>= 7;
+                }
+                out.writeByte(length);
+            }
+        }
+    }
+
+    /**
+     * Read a recording from a file.
+     */
+    public static InputRecording load(String fileName) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                throw new IOException("Not a version " + VERSION + " recording");
+            }
+            String levelFile = in.readUTF();
+            Snapshot start = null;
+            int startSize = in.readInt();
+            if (startSize < 0)
+            {
+                throw new IOException("Bad snapshot size: " + startSize);
+            }
+            if (startSize > 0)
+            {
+                byte[] startData = new byte[startSize];
+                in.readFully(startData);
+                start = Snapshot.fromData(startData);
+            }
+            InputRecording recording = new InputRecording(levelFile, start);
+            int runs = in.readInt();
+            for (int run = 0; run < runs; run += 1)
+            {
+                int controls = in.readUnsignedByte();
+                int length = 0;
+                int shift = 0;
+                int part;
+                do
+                {
+                    part = in.readUnsignedByte();
+                    length |= (part & 0x7F) << shift;
+                    shift += 7;
+                }
+                while ((part & 0x80) != 0);
+
+                recording.addRun(controls, length);
+                recording.ticks += length;
+            }
+            return recording;
+        }
+    }
+}
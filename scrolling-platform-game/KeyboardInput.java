@@ -0,0 +1,34 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * Controls for the hero, read from the keyboard.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class KeyboardInput implements GameInput
+{
+    /**
+     * Is the left arrow key held down?
+     */
+    public boolean isLeftDown()
+    {
+        return Greenfoot.isKeyDown("left");
+    }
+
+    /**
+     * Is the right arrow key held down?
+     */
+    public boolean isRightDown()
+    {
+        return Greenfoot.isKeyDown("right");
+    }
+
+    /**
+     * Is the up arrow key held down?
+     */
+    public boolean isUpDown()
+    {
+        return Greenfoot.isKeyDown("up");
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-width slice of the scrollable world, holding the tiles that have been
+ * created for its columns.
+ *
+ * Chunks are created as the hero gets close to them and thrown away once the hero
+ * is well past them, so only a few of them exist at any time however long the level is.
+ * Anything that must survive (such as which ground has been dug) is kept outside the chunk.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class LevelChunk
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Width of every chunk, in columns (the same chunks the dirt left is counted in)
+    public static final int COLUMNS = TerrainIndex.CHUNK_COLUMNS;
+
+    // Which chunk this is (chunk 0 starts at the left edge of the scrollable world)
+    private int index;
+
+    // Every tile in this chunk, and the same tiles filed under each column they cover
+    private List<Tile> tiles;
+    private List<List<Tile>> tilesByColumn;
+
+    // The piece of diggable ground in this chunk, if there is one
+    private Ground ground;
+
+    /**
+     * Constructor
+     *
+     * Creates an empty chunk.
+     */
+    public LevelChunk(int index)
+    {
+        this.index = index;
+        tiles = new ArrayList<Tile>();
+        tilesByColumn = new ArrayList<List<Tile>>();
+        for (int i = 0; i < COLUMNS; i += 1)
+        {
+            tilesByColumn.add(new ArrayList<Tile>());
+        }
+    }
+
+    /**
+     * Which chunk this is.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * First column of the scrollable world in this chunk.
+     */
+    public int getFirstColumn()
+    {
+        return index * COLUMNS;
+    }
+
+    /**
+     * Last column of the scrollable world in this chunk.
+     */
+    public int getLastColumn()
+    {
+        return getFirstColumn() + COLUMNS - 1;
+    }
+
+    /**
+     * Add a tile to this chunk, filing it under the columns it covers within this chunk.
+     */
+    public void add(Tile tile)
+    {
+        tiles.add(tile);
+        if (tile instanceof Ground)
+        {
+            ground = (Ground) tile;
+        }
+
+        int firstColumn = Math.max(tile.getFirstColumn(), getFirstColumn());
+        int lastColumn = Math.min(tile.getLastColumn(), getLastColumn());
+        for (int column = firstColumn; column <= lastColumn; column += 1)
+        {
+            tilesByColumn.get(column - getFirstColumn()).add(tile);
+        }
+    }
+
+    /**
+     * Every tile in this chunk.
+     */
+    public List<Tile> getTiles()
+    {
+        return tiles;
+    }
+
+    /**
+     * The tiles covering the given column of the scrollable world (which must be in this chunk).
+     */
+    public List<Tile> getTilesInColumn(int column)
+    {
+        return tilesByColumn.get(column - getFirstColumn());
+    }
+
+    /**
+     * The piece of diggable ground in this chunk, or null if there is none.
+     */
+    public Ground getGround()
+    {
+        return ground;
+    }
+}
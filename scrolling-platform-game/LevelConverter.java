@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a level drawn as a text file into a binary level file.
+ *
+ * Each line of the text file is one row of tiles, and each character is one tile:
+ *
+ *   #  metal plate
+ *   o  diggable ground
+ *   .  empty (so is a space, or anything past the end of a short line)
+ *   H  where the hero starts (an empty tile)
+ *   P  a Pooka (an empty tile)
+ *
+ * Lines starting with ; are comments. The hero and enemies are placed in the
+ * middle of their tile.
+ *
+ * To use: right-click this class and call convert, or run it from a terminal with
+ * the text file and binary file as arguments.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class LevelConverter
+{
+    /**
+     * Convert from a terminal: java LevelConverter levels/level1.txt levels/level1.lvl
+     */
+    public static void main(String[] args) throws IOException
+    {
+        convert(args[0], args[1]);
+    }
+
+    /**
+     * Read the text level and write the binary level.
+     */
+    public static void convert(String textFile, String levelFile) throws IOException
+    {
+        // Keep only the lines that describe tiles
+        List<String> lines = new ArrayList<String>();
+        for (String line : Files.readAllLines(Paths.get(textFile), StandardCharsets.UTF_8))
+        {
+            if (!line.startsWith(";"))
+            {
+                lines.add(line);
+            }
+        }
+
+        // The level is as wide as its longest line
+        int rows = lines.size();
+        int columns = 0;
+        for (String line : lines)
+        {
+            columns = Math.max(columns, line.length());
+        }
+
+        // Work out each tile (stored one column after another) and what is placed where
+        byte[] tiles = new byte[columns * rows];
+        int heroX = Simulation.TILE_SIZE / 2;
+        int heroY = Simulation.TILE_SIZE / 2;
+        List<int[]> spawns = new ArrayList<int[]>();
+        for (int row = 0; row < rows; row += 1)
+        {
+            String line = lines.get(row);
+            for (int column = 0; column < line.length(); column += 1)
+            {
+                // Middle of this tile, in pixels
+                int x = column * Simulation.TILE_SIZE + Simulation.TILE_SIZE / 2;
+                int y = row * Simulation.TILE_SIZE + Simulation.TILE_SIZE / 2;
+
+                char c = line.charAt(column);
+                if (c == '#')
+                {
+                    tiles[column * rows + row] = LevelData.METAL;
+                }
+                else if (c == 'o')
+                {
+                    tiles[column * rows + row] = LevelData.GROUND;
+                }
+                else if (c == 'H')
+                {
+                    heroX = x;
+                    heroY = y;
+                }
+                else if (c == 'P')
+                {
+                    spawns.add(new int[] { LevelData.SPAWN_POOKA, x, y });
+                }
+                else if (c != '.' && c != ' ')
+                {
+                    throw new IOException("Unknown tile '" + c + "' at line " + (row + 1) + ", column " + (column + 1));
+                }
+            }
+        }
+
+        LevelData.save(levelFile, columns, rows, tiles, heroX, heroY, spawns);
+    }
+}
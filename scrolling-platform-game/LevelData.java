@@ -0,0 +1,319 @@
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A level read from a compact binary level file.
+ *
+ * The file is memory-mapped, and tiles are read straight out of it as chunks of the
+ * level are created, so even a very large level opens without being parsed first.
+ *
+ * File layout (all numbers are big-endian ints unless noted):
+ *
+ *   magic "DIGL", version, tile size, columns, rows, hero x, hero y, spawn count
+ *   spawns:  spawn count x (type, x, y)                    positions in pixels
+ *   tiles:   columns x rows bytes, one column after another (so a chunk is one run)
+ *   padding: zero bytes up to a multiple of 8
+ *   ground:  the starting Terrain bits, as longs (see Terrain for the layout)
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class LevelData
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Tile types
+    public static final byte EMPTY = 0;
+    public static final byte GROUND = 1;
+    public static final byte METAL = 2;
+
+    // Spawn types
+    public static final int SPAWN_POOKA = 1;
+
+    // Identifies a level file ("DIGL"), and which version of the layout it uses
+    private static final int MAGIC = 0x4449474C;
+    private static final int VERSION = 1;
+
+    // Size of the fixed part of the file, and of each spawn
+    private static final int HEADER_BYTES = 32;
+    private static final int SPAWN_BYTES = 12;
+
+    // The contents of the file
+    private ByteBuffer buffer;
+
+    // Level metadata, read from the header
+    private int columns;
+    private int rows;
+    private int heroX;
+    private int heroY;
+    private int spawnCount;
+
+    // Where each section starts in the file
+    private int tilesOffset;
+    private int groundOffset;
+
+    /**
+     * Constructor
+     *
+     * Reads the header of a level that is already in memory (or mapped into it).
+     */
+    private LevelData(ByteBuffer buffer) throws IOException
+    {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+        {
+            throw new IOException("Not a version " + VERSION + " level file");
+        }
+        if (buffer.getInt(8) != Simulation.TILE_SIZE)
+        {
+            throw new IOException("Level was made for " + buffer.getInt(8) + " pixel tiles");
+        }
+        columns = buffer.getInt(12);
+        rows = buffer.getInt(16);
+        heroX = buffer.getInt(20);
+        heroY = buffer.getInt(24);
+        spawnCount = buffer.getInt(28);
+
+        tilesOffset = HEADER_BYTES + spawnCount * SPAWN_BYTES;
+        groundOffset = alignToLong(tilesOffset + columns * rows);
+        if (buffer.capacity() < groundOffset + groundLongs(columns, rows) * 8)
+        {
+            throw new IOException("Level file is too short");
+        }
+    }
+
+    /**
+     * Open a level file.
+     *
+     * The name is looked up the same way as images and sounds (relative to the scenario).
+     * Where the level is an ordinary file it is memory-mapped; otherwise (for example,
+     * inside an exported jar) it is read into memory.
+     */
+    public static LevelData load(String fileName) throws IOException
+    {
+        URL url = LevelData.class.getClassLoader().getResource(fileName);
+        Path path = Paths.get(fileName);
+        if (url != null && "file".equals(url.getProtocol()))
+        {
+            try
+            {
+                path = Paths.get(url.toURI());
+            }
+            catch (URISyntaxException e)
+            {
+                throw new IOException("Bad level location " + url, e);
+            }
+        }
+        else if (url != null)
+        {
+            try (InputStream in = url.openStream())
+            {
+                return new LevelData(ByteBuffer.wrap(in.readAllBytes()));
+            }
+        }
+
+        if (!Files.exists(path))
+        {
+            throw new FileNotFoundException("Level file " + fileName + " not found");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            return new LevelData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a level from bytes in memory (laid out as in a level file).
+     */
+    public static LevelData fromBytes(byte[] bytes) throws IOException
+    {
+        return new LevelData(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Write a level file.
+     *
+     * Tiles are given one column after another; each spawn is {type, x, y}.
+     */
+    public static void save(String fileName, int columns, int rows, byte[] tiles,
+                            int heroX, int heroY, List<int[]> spawns) throws IOException
+    {
+        try (FileOutputStream out = new FileOutputStream(fileName))
+        {
+            out.write(encode(columns, rows, tiles, heroX, heroY, spawns));
+        }
+    }
+
+    /**
+     * Lay out a level as the bytes of a level file.
+     *
+     * Tiles are given one column after another; each spawn is {type, x, y}.
+     */
+    public static byte[] encode(int columns, int rows, byte[] tiles,
+                                int heroX, int heroY, List<int[]> spawns)
+    {
+        int tilesOffset = HEADER_BYTES + spawns.size() * SPAWN_BYTES;
+        int groundOffset = alignToLong(tilesOffset + tiles.length);
+        ByteBuffer buffer = ByteBuffer.allocate(groundOffset + groundLongs(columns, rows) * 8);
+
+        // Header
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(Simulation.TILE_SIZE);
+        buffer.putInt(columns);
+        buffer.putInt(rows);
+        buffer.putInt(heroX);
+        buffer.putInt(heroY);
+        buffer.putInt(spawns.size());
+
+        // Spawns
+        for (int[] spawn : spawns)
+        {
+            buffer.putInt(spawn[0]);
+            buffer.putInt(spawn[1]);
+            buffer.putInt(spawn[2]);
+        }
+
+        // Tiles (the padding after them is already zero)
+        buffer.put(tiles);
+
+        // Starting ground, packed the same way Terrain packs it
+        long[] ground = new long[groundLongs(columns, rows)];
+        for (int column = 0; column < columns; column += 1)
+        {
+            for (int row = 0; row < rows; row += 1)
+            {
+                if (tiles[column * rows + row] == GROUND)
+                {
+                    int index = row * columns + column;
+                    ground[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+        buffer.position(groundOffset);
+        for (long bits : ground)
+        {
+            buffer.putLong(bits);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Number of columns in the level.
+     */
+    public int getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * Number of rows in the level.
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Where the hero starts, in pixels.
+     */
+    public int getHeroX()
+    {
+        return heroX;
+    }
+
+    /**
+     * Where the hero starts, in pixels.
+     */
+    public int getHeroY()
+    {
+        return heroY;
+    }
+
+    /**
+     * Number of enemies (and other things) placed in the level.
+     */
+    public int getSpawnCount()
+    {
+        return spawnCount;
+    }
+
+    /**
+     * What kind of thing the given spawn is (for example, SPAWN_POOKA).
+     */
+    public int getSpawnType(int spawn)
+    {
+        return buffer.getInt(HEADER_BYTES + spawn * SPAWN_BYTES);
+    }
+
+    /**
+     * Where the given spawn is placed, in pixels.
+     */
+    public int getSpawnX(int spawn)
+    {
+        return buffer.getInt(HEADER_BYTES + spawn * SPAWN_BYTES + 4);
+    }
+
+    /**
+     * Where the given spawn is placed, in pixels.
+     */
+    public int getSpawnY(int spawn)
+    {
+        return buffer.getInt(HEADER_BYTES + spawn * SPAWN_BYTES + 8);
+    }
+
+    /**
+     * The type of tile at the given cell (EMPTY outside the level).
+     */
+    public byte getTile(int column, int row)
+    {
+        if (column < 0 || column >= columns || row < 0 || row >= rows)
+        {
+            return EMPTY;
+        }
+        return buffer.get(tilesOffset + column * rows + row);
+    }
+
+    /**
+     * Create the grid of diggable ground as it is at the start of the level.
+     */
+    public Terrain createTerrain()
+    {
+        long[] ground = new long[groundLongs(columns, rows)];
+        for (int i = 0; i < ground.length; i += 1)
+        {
+            ground[i] = buffer.getLong(groundOffset + i * 8);
+        }
+        return new Terrain(columns, rows, ground);
+    }
+
+    /**
+     * Round a position in the file up to the next multiple of 8.
+     */
+    private static int alignToLong(int offset)
+    {
+        return (offset + 7) & ~7;
+    }
+
+    /**
+     * Number of longs needed to hold one bit per cell.
+     */
+    private static int groundLongs(int columns, int rows)
+    {
+        return (columns * rows + 63) / 64;
+    }
+}
@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Makes levels of any size in memory, shaped like level 1: metal plates around the
+ * edge, an empty strip on the left where the hero starts, and ground everywhere else.
+ *
+ * A seed picks where a few ready-dug tunnels run and where the enemies start, so the
+ * same seed always gives the same level. Used by the benchmarks and headless runs.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class LevelGenerator
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Width of the empty strip on the left (not counting the border)
+    private static final int START_COLUMNS = 4;
+
+    // Tunnel lengths, in tiles, and how many columns of level there are per tunnel
+    private static final int MIN_TUNNEL = 3;
+    private static final int MAX_TUNNEL = 10;
+    private static final int COLUMNS_PER_TUNNEL = 15;
+
+    /**
+     * Make a level of the given size (in tiles) with the given number of enemies.
+     */
+    public static LevelData create(int columns, int rows, int enemies, long seed)
+    {
+        try
+        {
+            return LevelData.fromBytes(createBytes(columns, rows, enemies, seed));
+        }
+        catch (IOException e)
+        {
+            // Only happens if encode() and the reader disagree
+            throw new IllegalStateException("Generated level could not be read", e);
+        }
+    }
+
+    /**
+     * Make a level, as the bytes of a level file.
+     */
+    public static byte[] createBytes(int columns, int rows, int enemies, long seed)
+    {
+        Random random = new Random(seed);
+        byte[] tiles = new byte[columns * rows];
+        for (int column = 0; column < columns; column += 1)
+        {
+            for (int row = 0; row < rows; row += 1)
+            {
+                byte tile = LevelData.EMPTY;
+                if (column == 0 || column == columns - 1 || row == 0 || row == rows - 1)
+                {
+                    tile = LevelData.METAL;
+                }
+                else if (column > START_COLUMNS)
+                {
+                    tile = LevelData.GROUND;
+                }
+                tiles[column * rows + row] = tile;
+            }
+        }
+
+        // Carve a few horizontal tunnels through the ground
+        int groundColumns = columns - START_COLUMNS - 2;
+        for (int i = 0; i < groundColumns / COLUMNS_PER_TUNNEL; i += 1)
+        {
+            int row = 1 + random.nextInt(rows - 2);
+            int start = START_COLUMNS + 1 + random.nextInt(groundColumns);
+            int length = MIN_TUNNEL + random.nextInt(MAX_TUNNEL - MIN_TUNNEL + 1);
+            for (int column = start; column < Math.min(start + length, columns - 1); column += 1)
+            {
+                tiles[column * rows + row] = LevelData.EMPTY;
+            }
+        }
+
+        // Scatter the enemies inside the border
+        List<int[]> spawns = new ArrayList<int[]>();
+        for (int i = 0; i < enemies; i += 1)
+        {
+            int column = 1 + random.nextInt(columns - 2);
+            int row = 1 + random.nextInt(rows - 2);
+            spawns.add(new int[] { LevelData.SPAWN_POOKA, middleOf(column), middleOf(row) });
+        }
+
+        // Hero starts in the empty strip, near the bottom (as in level 1)
+        return LevelData.encode(columns, rows, tiles, middleOf(3), middleOf(rows - 5), spawns);
+    }
+
+    /**
+     * Middle of the given column or row, in pixels.
+     */
+    private static int middleOf(int tile)
+    {
+        return tile * Simulation.TILE_SIZE + Simulation.TILE_SIZE / 2;
+    }
+}
@@ -1,29 +0,0 @@
-import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
-
-/**
- * Write a description of class MetalPlate here.
- * 
- * @author (your name) 
- * @version (a version number or a date)
- */
-public class MetalPlate extends Platform
-{
-    /**
-     * Constructor
-     * 
-     * Called once when object is created.
-     */
-    MetalPlate(int scrollableWorldX, int scrollableWorldY)
-    {
-        super(scrollableWorldX, scrollableWorldY);
-    }
-
-    /**
-     * Act - do whatever the MetalPlate wants to do. This method is called whenever
-     * the 'Act' or 'Run' button gets pressed in the environment.
-     */
-    public void act() 
-    {
-        // Add your action code here.
-    }    
-}
@@ -0,0 +1,137 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scenery behind the level that scrolls more slowly than the level itself, the
+ * farther back it is, to give a sense of depth.
+ *
+ * Each layer is one image, made once when the layer is added, with the layer's
+ * picture repeated across it (and down it, a whole number of times). The image
+ * is at least as wide as the screen and is a whole number of repeats wide, so it
+ * joins up with itself: to show the layer at any camera position, it is drawn once,
+ * shifted left by how far the layer has scrolled (wrapped around to the width of
+ * the image), and drawn again after itself to fill any gap left at the right.
+ *
+ * The layers are drawn, back to front, straight into the world's background, so
+ * they are not actors and cost nothing to move: each frame the camera has moved is
+ * one or two drawImage() calls per layer. Frames where the camera hasn't moved cost
+ * nothing at all.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class ParallaxBackground
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Width of the screen the layers are drawn on
+    private int width;
+
+    // The layers, back to front
+    private List<Layer> layers;
+
+    // Camera position the background was last drawn for, and whether it has been drawn yet
+    private int shownCameraX;
+    private boolean isShown;
+
+    /**
+     * Constructor
+     *
+     * An empty background for a screen of the given width; add layers with addLayer().
+     */
+    public ParallaxBackground(int width)
+    {
+        this.width = width;
+        layers = new ArrayList<Layer>();
+        isShown = false;
+    }
+
+    /**
+     * Add a layer in front of those added so far.
+     *
+     * The picture in the given image file is repeated across the screen, leaving the
+     * given gap (in pixels) between copies, and the given number of times down from the
+     * given top edge (whole copies only, so no picture is cut off). The layer scrolls
+     * by the given percentage of the distance the camera moves (0 for something that
+     * never moves, 100 to keep up with the level).
+     *
+     * The back layer should cover the whole screen, as the layers are drawn over
+     * whatever was there before.
+     */
+    public void addLayer(String file, int top, int copiesDown, int gap, int speedPercent)
+    {
+        GreenfootImage picture = new GreenfootImage(file);
+        int repeatWidth = picture.getWidth() + gap;
+
+        // Repeat the picture until the image is as wide as the screen
+        int repeats = (width + repeatWidth - 1) / repeatWidth;
+        GreenfootImage image = new GreenfootImage(repeats * repeatWidth, copiesDown * picture.getHeight());
+        for (int i = 0; i < repeats; i += 1)
+        {
+            for (int j = 0; j < copiesDown; j += 1)
+            {
+                image.drawImage(picture, i * repeatWidth, j * picture.getHeight());
+            }
+        }
+
+        layers.add(new Layer(image, top, speedPercent));
+        isShown = false;
+    }
+
+    /**
+     * Draw the layers onto the given background as they look from the given camera
+     * position, unless they are already showing from there.
+     */
+    public void show(GreenfootImage background, int cameraX)
+    {
+        if (isShown && cameraX == shownCameraX)
+        {
+            return;
+        }
+
+        for (Layer layer : layers)
+        {
+            // How far into its image the layer has scrolled
+            int imageWidth = layer.image.getWidth();
+            int offset = Math.floorMod(cameraX * layer.speedPercent / 100, imageWidth);
+
+            // Draw it there, and again after itself if that doesn't reach the right of the screen
+            background.drawImage(layer.image, -offset, layer.top);
+            if (imageWidth - offset < width)
+            {
+                background.drawImage(layer.image, imageWidth - offset, layer.top);
+            }
+        }
+        shownCameraX = cameraX;
+        isShown = true;
+    }
+
+    /**
+     * Number of layers.
+     */
+    public int getLayerCount()
+    {
+        return layers.size();
+    }
+
+    /**
+     * One layer: its repeated image, where its top edge is on the screen, and how fast it scrolls.
+     */
+    private static class Layer
+    {
+        private GreenfootImage image;
+        private int top;
+        private int speedPercent;
+
+        Layer(GreenfootImage image, int top, int speedPercent)
+        {
+            this.image = image;
+            this.top = top;
+            this.speedPercent = speedPercent;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Passes on the controls from another input (such as the keyboard), recording them tick by tick.
+ *
+ * The controls are read once at the start of each tick, so the hero sees exactly what
+ * was recorded, and playing the recording back with ReplayInput gives the same game.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class RecordingInput implements GameInput
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Where the controls come from, and where they are recorded
+    private GameInput source;
+    private InputRecording recording;
+
+    // Controls held down this tick (InputRecording bits)
+    private int controls;
+
+    /**
+     * Constructor
+     *
+     * Records the controls from the given input.
+     */
+    public RecordingInput(GameInput source, InputRecording recording)
+    {
+        this.source = source;
+        this.recording = recording;
+        controls = 0;
+    }
+
+    /**
+     * Read the controls for the new tick, and record them.
+     */
+    public void nextTick()
+    {
+        source.nextTick();
+        controls = InputRecording.controlsOf(source);
+        recording.add(controls);
+    }
+
+    /**
+     * Is the "left" control held down this tick?
+     */
+    public boolean isLeftDown()
+    {
+        return (controls & InputRecording.LEFT) != 0;
+    }
+
+    /**
+     * Is the "right" control held down this tick?
+     */
+    public boolean isRightDown()
+    {
+        return (controls & InputRecording.RIGHT) != 0;
+    }
+
+    /**
+     * Is the "up" control held down this tick?
+     */
+    public boolean isUpDown()
+    {
+        return (controls & InputRecording.UP) != 0;
+    }
+
+    /**
+     * The recording so far.
+     */
+    public InputRecording getRecording()
+    {
+        return recording;
+    }
+}
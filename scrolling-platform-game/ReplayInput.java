@@ -0,0 +1,100 @@
+/**
+ * Plays back a recorded game's controls, one tick at a time.
+ *
+ * Once the recording runs out, no controls are held.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class ReplayInput implements GameInput
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // The recording being played
+    private InputRecording recording;
+
+    // The run being played, and how many of its ticks are still to come
+    private int run;
+    private int ticksLeftInRun;
+
+    // Controls held down this tick (InputRecording bits)
+    private int controls;
+
+    // Ticks played so far
+    private int ticksPlayed;
+
+    /**
+     * Constructor
+     *
+     * Plays the given recording from the start.
+     */
+    public ReplayInput(InputRecording recording)
+    {
+        this.recording = recording;
+        run = -1;
+        ticksLeftInRun = 0;
+        controls = 0;
+        ticksPlayed = 0;
+    }
+
+    /**
+     * Move on to the controls for the next tick.
+     */
+    public void nextTick()
+    {
+        ticksPlayed += 1;
+
+        // Move on to the next run once this one is used up
+        while (ticksLeftInRun == 0 && run + 1 < recording.getRunCount())
+        {
+            run += 1;
+            ticksLeftInRun = recording.getRunLength(run);
+            controls = recording.getRunControls(run);
+        }
+
+        if (ticksLeftInRun > 0)
+        {
+            ticksLeftInRun -= 1;
+        }
+        else
+        {
+            // Past the end of the recording
+            controls = 0;
+        }
+    }
+
+    /**
+     * Are there ticks of the recording still to play?
+     */
+    public boolean hasMoreTicks()
+    {
+        return ticksPlayed < recording.getTicks();
+    }
+
+    /**
+     * Is the "left" control held down this tick?
+     */
+    public boolean isLeftDown()
+    {
+        return (controls & InputRecording.LEFT) != 0;
+    }
+
+    /**
+     * Is the "right" control held down this tick?
+     */
+    public boolean isRightDown()
+    {
+        return (controls & InputRecording.RIGHT) != 0;
+    }
+
+    /**
+     * Is the "up" control held down this tick?
+     */
+    public boolean isUpDown()
+    {
+        return (controls & InputRecording.UP) != 0;
+    }
+}
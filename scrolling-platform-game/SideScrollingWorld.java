@@ -1,12 +1,20 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Template for a side-scrolling platform game.
  * 
+ * The game itself runs in a Simulation; each act, the world steps it using the
+ * keyboard (as many ticks as FixedTimestep says are due), then moves the camera
+ * and the actors to show what happened.
+ * 
  * @author R. Gordon
  * @version May 8, 2019
  */
-public class SideScrollingWorld extends World
+public class SideScrollingWorld extends World implements DigListener
 {
     /**
      * Instance variables
@@ -15,7 +23,7 @@ public class SideScrollingWorld extends World
      */    
     // Tile size in pixels for world elements (blocks, clouds, etc)
     // TO STUDENTS: Modify if your game's tiles have different dimensions
-    private static final int TILE_SIZE = 32;
+    public static final int TILE_SIZE = Simulation.TILE_SIZE;
     private static final int HALF_TILE_SIZE = TILE_SIZE / 2;
 
     // World size constants
@@ -28,188 +36,701 @@ public class SideScrollingWorld extends World
     public static final int HALF_VISIBLE_WIDTH = VISIBLE_WIDTH / 2;
     private static final int HALF_VISIBLE_HEIGHT = VISIBLE_HEIGHT / 2;
 
-    // Defining the boundaries of the scrollable world
-    // TO STUDENTS: Modify SCROLLABLE_WIDTH if you wish to have a longer level
-    public static final int SCROLLABLE_WIDTH = VISIBLE_WIDTH * 3;
-    private static final int SCROLLABLE_HEIGHT = VISIBLE_HEIGHT;
+    // The level to play
+    // TO STUDENTS: Draw your own level as a text file and turn it into a level
+    //              file with LevelConverter (see that class for how)
+    private static final String LEVEL_FILE = "levels/level1.lvl";
+
+    // The level is created in chunks of this width as the hero approaches
+    private static final int CHUNK_WIDTH = LevelChunk.COLUMNS * TILE_SIZE;
+
+    // Keys to show the frame timings, and to save them to STATS_FILE
+    private static final String STATS_KEY = "f3";
+    private static final String DUMP_STATS_KEY = "f4";
+    private static final String STATS_FILE = "frame-stats.csv";
+
+    // Key to save the controls played so far to RECORDING_FILE (play it back with HeadlessRunner)
+    private static final String SAVE_RECORDING_KEY = "f5";
+    private static final String RECORDING_FILE = "session.rec";
+
+    // Keys to save the game as it is now (to QUICK_SAVE_FILE too), go back to that save,
+    // and start the level over
+    private static final String QUICK_SAVE_KEY = "f6";
+    private static final String QUICK_LOAD_KEY = "f7";
+    private static final String RETRY_KEY = "f8";
+    private static final String QUICK_SAVE_FILE = "quick.snap";
+
+    // The level file being played, and the layout of the level read from it
+    private String levelFile;
+    private LevelData level;
+
+    // Defining the boundaries of the scrollable world (the size of the level)
+    private int scrollableWidth;
+    private int scrollableHeight;
+
+    // The game being shown, and where its controls come from (recorded as they are played)
+    private Simulation simulation;
+    private RecordingInput input;
+
+    // Runs the game at a steady number of ticks per second, whatever the frame rate
+    private FixedTimestep timestep;
 
     // Hero
     Taizo theHero;
 
+    // Enemies, all drawn by one actor
+    private EntityLayer entityLayer;
+
+    // Which part of the scrollable world is showing
+    private Camera camera;
+
+    // Scenery drawn into the world's background, scrolling slower than the level
+    private ParallaxBackground parallax;
+
+    // Finds the loaded chunk for each column of the scrollable world
+    private TileGrid tileGrid;
+
+    // Chunks of the level that currently have tiles created for them
+    private List<LevelChunk> loadedChunks;
+
+    // Terrain with cells waiting to be redrawn at the end of the frame
+    private List<Ground> dirtyGrounds;
+
+    // Tiles currently added to the world (those overlapping the visible world)
+    private List<Tile> visibleTiles;
+    private int firstVisibleColumn;
+    private int lastVisibleColumn;
+
+    // Loads what the world needs in the background, and times how long that takes
+    private Startup startup;
+
+    // Whether the time the first world took to build has been printed yet (it is only
+    // printed once a run, not every time the world is reset; getStartupReport() has it)
+    private static boolean isStartupReported = false;
+
+    // Where each frame's time goes, and the overlay that shows it (when turned on)
+    private FrameStats frameStats;
+    private StatsOverlay statsOverlay;
+    private boolean statsKeyWasDown;
+    private boolean dumpStatsKeyWasDown;
+    private boolean saveRecordingKeyWasDown;
+    private boolean quickSaveKeyWasDown;
+    private boolean quickLoadKeyWasDown;
+    private boolean retryKeyWasDown;
+
+    // The game as it was at the start of the level, and at the last quick-save (null if none)
+    private Snapshot startSnapshot;
+    private Snapshot quickSave;
+
     // Track whether game is on
     private boolean isGameOver;
-    
-    // Background music
-    GreenfootSound backgroundMusic = new GreenfootSound("ThemeSong.mp3");
+
+    // Percentage of dirt left, and cells of it on screen, as last shown at the top of the screen
+    private int percentShown;
+    private int onScreenShown;
+
+    // Background music and sound effects (loaded in the background)
+    private Sounds sounds;
 
     /**
      * Constructor for objects of class SideScrollingWorld.
+     *
+     * The level, sprites and sounds are loaded on worker threads all at once, while
+     * this thread sets up the background; the world is then built from them, so it is
+     * ready to show (and to play) as soon as the constructor returns. The sounds may
+     * still be loading then: they start once they are ready.
      */
     public SideScrollingWorld()
+    {
+        this(LEVEL_FILE);
+    }
+
+    /**
+     * Constructor for objects of class SideScrollingWorld.
+     *
+     * Plays the given level file instead of the usual one (see WorldBenchmarks).
+     */
+    public SideScrollingWorld(String levelFile)
     {    
         // Create a new world with 640x480 cells with a cell size of 1x1 pixels.
         // Final argument of 'false' means that actors in the world are not restricted to the world boundary.
         // See: https://www.greenfoot.org/files/javadoc/greenfoot/World.html#World-int-int-int-boolean-
         super(VISIBLE_WIDTH, VISIBLE_HEIGHT, 1, false);
 
-        // Set up the starting scene
-        setup();
+        // Terrain is drawn as large images, so make sure everything else is drawn over it
+        setPaintOrder(StatsOverlay.class, Taizo.class, EntityLayer.class, Ground.class);
+
+        // Load the level, sprite images, music and sound effects all at once, in the background
+        this.levelFile = levelFile;
+        startup = new Startup(levelFile);
+        sounds = startup.getSounds();
+
+        // Meanwhile, draw the scenery behind the level
+        addBackgroundLayers();
 
-        // Game on  
+        // Game on (the music starts as soon as it has loaded)
         isGameOver = false;
+        percentShown = -1;
+        sounds.startMusic();
+
+        // Build the world once the level and sprites are ready
+        finishStartup();
+    }
+
+    /**
+     * Build the world from what startup has loaded, waiting for it if need be.
+     */
+    private void finishStartup()
+    {
+        Simulation loaded = startup.getSimulation();
+        long startTime = System.nanoTime();
+        level = loaded.getLevel();
+        scrollableWidth = level.getColumns() * TILE_SIZE;
+        scrollableHeight = level.getRows() * TILE_SIZE;
+
+        // Start with the camera at the far left, and no tiles on screen yet
+        // (any tiles a previous world was using can be used again)
+        TilePool.reclaimAll();
+        camera = new Camera();
+        tileGrid = new TileGrid(level.getColumns());
+        loadedChunks = new ArrayList<LevelChunk>();
+        dirtyGrounds = new ArrayList<Ground>();
+        visibleTiles = new ArrayList<Tile>();
+        firstVisibleColumn = 0;
+        lastVisibleColumn = -1;
+
+        // Set up the starting scene
+        setup(loaded);
         prepare();
-        
-        // Play the music
-        backgroundMusic.playLoop();
+        startSnapshot = Snapshot.take(simulation);
+        startup.finish(System.nanoTime() - startTime);
+        if (!isStartupReported)
+        {
+            System.out.println(getStartupReport());
+            isStartupReported = true;
+        }
     }
 
     /**
      * Set up the entire world.
      */
-    private void setup()
+    private void setup(Simulation loaded)
     {
+        // Start the game, controlled from the keyboard (and record every tick of it)
+        simulation = loaded;
+        simulation.setDigListener(this);
+        input = new RecordingInput(new KeyboardInput(), new InputRecording(levelFile));
+        timestep = new FixedTimestep();
+
+        // Time every frame from the start
+        frameStats = new FrameStats();
+        simulation.setFrameStats(frameStats);
+
         // Add the necessary methods at the beginning
-        topBorder();
-        bottomBorder();
-        leftBorder();
-        rightBorder();
-        addGround();
         addHero();
+
+        // Create the chunks near the hero, and put the tiles the camera can see into the world
+        updateLoadedChunks();
+        updateVisibleTiles();
+    }
+
+    /**
+     * Act
+     * 
+     * This method is called approximately 60 times per second.
+     */
+    public void act()
+    {
+        frameStats.begin(FrameStats.FRAME);
+
+        // Run as many ticks as the time since the last frame calls for
+        // (the simulation times the hero and enemies itself)
+        int ticks = timestep.advance(System.nanoTime());
+        for (int i = 0; i < ticks; i += 1)
+        {
+            simulation.step(input);
+        }
+        double alpha = timestep.getAlpha();
+
+        // Keep the hero in the middle of the screen, except near the ends of the level
+        frameStats.begin(FrameStats.CAMERA);
+        int cameraX = simulation.getHero().getX(alpha) - HALF_VISIBLE_WIDTH;
+        cameraX = Math.max(0, Math.min(cameraX, scrollableWidth - VISIBLE_WIDTH));
+        if (cameraX != camera.getX())
+        {
+            scrollBy(cameraX - camera.getX());
+        }
+        frameStats.end(FrameStats.CAMERA);
+
+        // Create chunks the hero is approaching, and throw away those far behind
+        frameStats.begin(FrameStats.CHUNKS);
+        updateLoadedChunks();
+        frameStats.end(FrameStats.CHUNKS);
+
+        // Show where everyone is now
+        frameStats.begin(FrameStats.ACTORS);
+        theHero.show(camera, alpha);
+        entityLayer.show(camera, alpha);
+
+        // Redraw just the cells of terrain that changed
+        for (Ground ground : dirtyGrounds)
+        {
+            ground.redrawDirty();
+        }
+        dirtyGrounds.clear();
+        frameStats.end(FrameStats.ACTORS);
+
+        // Show how much dirt is left, in the level and on screen (only redrawn when a number changes)
+        int percentLeft = simulation.getTerrainIndex().getPercentRemaining();
+        int onScreen = simulation.getTerrainIndex().countRemaining(firstVisibleColumn, 0, lastVisibleColumn, level.getRows() - 1);
+        if (percentLeft != percentShown || onScreen != onScreenShown)
+        {
+            showText("Dirt left: " + percentLeft + "% (" + onScreen + " on screen)", getWidth() / 2, HALF_TILE_SIZE);
+            percentShown = percentLeft;
+            onScreenShown = onScreen;
+        }
+
+        // Is the level finished?
+        if (simulation.isLevelComplete() && !isGameOver)
+        {
+            setGameOver();
+            showText("GAME COMPLETED", getWidth() / 2, getHeight() / 2);
+        }
+
+        frameStats.endFrame(simulation.getCollisionQueries(), numberOfObjects());
+        checkStatsKeys();
     }
 
     /**
-     * Add blocks to create the ground to walk on at bottom-left of scrollable world.
+     * Called when the scenario is started (or resumed after a pause).
      */
+    public void started()
+    {
+        // Don't try to catch up on the time spent paused
+        timestep.reset();
+    }
 
-    private void topBorder()
+    /**
+     * Show or hide the frame timings, or save them or the recording to a file, when their keys are pressed.
+     */
+    private void checkStatsKeys()
     {
-        // Make the tiles the width of the world
-        final int tilesToCreate = getWidth();
+        // Show or hide the overlay (once per press)
+        boolean statsKeyDown = Greenfoot.isKeyDown(STATS_KEY);
+        if (statsKeyDown && !statsKeyWasDown)
+        {
+            if (statsOverlay == null)
+            {
+                statsOverlay = new StatsOverlay(frameStats);
+                addObject(statsOverlay, statsOverlay.getImage().getWidth() / 2, statsOverlay.getImage().getHeight() / 2);
+            }
+            else
+            {
+                removeObject(statsOverlay);
+                statsOverlay = null;
+            }
+        }
+        statsKeyWasDown = statsKeyDown;
 
-        // Loop to create and add the tile objects
-        for (int i = 0; i < tilesToCreate; i += 1)
+        // Save the timings so far
+        boolean dumpStatsKeyDown = Greenfoot.isKeyDown(DUMP_STATS_KEY);
+        if (dumpStatsKeyDown && !dumpStatsKeyWasDown)
         {
-            // Add MetalPlates objects at the top of the screen.
-            int x = i * TILE_SIZE + HALF_TILE_SIZE;
-            int y = HALF_TILE_SIZE;
+            saveFrameStats(STATS_FILE);
+        }
+        dumpStatsKeyWasDown = dumpStatsKeyDown;
 
-            // Create a MetalPlate tile
-            MetalPlate metalBorder = new MetalPlate(x, y);
+        // Save the controls played so far
+        boolean saveRecordingKeyDown = Greenfoot.isKeyDown(SAVE_RECORDING_KEY);
+        if (saveRecordingKeyDown && !saveRecordingKeyWasDown)
+        {
+            saveRecording(RECORDING_FILE);
+        }
+        saveRecordingKeyWasDown = saveRecordingKeyDown;
 
-            // Add the objects
-            addObject(metalBorder, x, y);
+        // Quick-save, go back to the quick-save (or the file it was saved to), and start over
+        boolean quickSaveKeyDown = Greenfoot.isKeyDown(QUICK_SAVE_KEY);
+        if (quickSaveKeyDown && !quickSaveKeyWasDown)
+        {
+            quickSave(QUICK_SAVE_FILE);
         }
+        quickSaveKeyWasDown = quickSaveKeyDown;
+
+        boolean quickLoadKeyDown = Greenfoot.isKeyDown(QUICK_LOAD_KEY);
+        if (quickLoadKeyDown && !quickLoadKeyWasDown)
+        {
+            quickLoad(QUICK_SAVE_FILE);
+        }
+        quickLoadKeyWasDown = quickLoadKeyDown;
+
+        boolean retryKeyDown = Greenfoot.isKeyDown(RETRY_KEY);
+        if (retryKeyDown && !retryKeyWasDown)
+        {
+            restoreSnapshot(startSnapshot);
+        }
+        retryKeyWasDown = retryKeyDown;
     }
 
-    private void bottomBorder()
+    /**
+     * Take a snapshot of the game as it is now, keep it, and write it to the given file.
+     */
+    public void quickSave(String fileName)
     {
-        // Make the tiles the width of the world
-        final int tilesToCreate = getWidth();
+        long startTime = System.nanoTime();
+        quickSave = Snapshot.take(simulation);
+        long elapsed = System.nanoTime() - startTime;
+        try
+        {
+            quickSave.save(fileName);
+            System.out.println("Saved " + quickSave.getSize() + " bytes to " + fileName
+                               + " (snapshot took " + (elapsed / 1000) + " microseconds)");
+        }
+        catch (IOException e)
+        {
+            System.out.println("Could not save snapshot to " + fileName + ": " + e.getMessage());
+        }
+    }
 
-        // Loop to create and add the tile objects
-        for (int i = 0; i < tilesToCreate; i += 1)
+    /**
+     * Go back to the last quick-save, or read it from the given file if there hasn't been one yet.
+     */
+    public void quickLoad(String fileName)
+    {
+        if (quickSave == null)
         {
-            // Add MetalPlates objects at bottom of screen.
-            int x = i * TILE_SIZE + HALF_TILE_SIZE;
-            int y = getHeight() - HALF_TILE_SIZE;
+            try
+            {
+                quickSave = Snapshot.load(fileName);
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not load snapshot from " + fileName + ": " + e.getMessage());
+                return;
+            }
+        }
+        restoreSnapshot(quickSave);
+    }
 
-            // Create a MetalPlate tile
-            MetalPlate metalBorder = new MetalPlate(x, y);
+    /**
+     * Put the game back the way it was when the given snapshot was taken, and rebuild
+     * the chunks of the level near the hero to match.
+     */
+    public void restoreSnapshot(Snapshot snapshot)
+    {
+        long startTime = System.nanoTime();
+        try
+        {
+            snapshot.restore(simulation);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println("Could not restore snapshot: " + e.getMessage());
+            return;
+        }
 
-            // Add the objects
-            addObject(metalBorder, x, y);
+        // Any of the loaded ground may have changed, so make every chunk again
+        for (LevelChunk chunk : loadedChunks)
+        {
+            unloadChunk(chunk);
         }
+        loadedChunks.clear();
+        dirtyGrounds.clear();
+        firstVisibleColumn = 0;
+        lastVisibleColumn = -1;
+        updateLoadedChunks();
+
+        // Point the camera at the hero again (this also shows the new chunks)
+        int cameraX = simulation.getHero().getX() - HALF_VISIBLE_WIDTH;
+        cameraX = Math.max(0, Math.min(cameraX, scrollableWidth - VISIBLE_WIDTH));
+        scrollBy(cameraX - camera.getX());
+
+        // Record from here on: a recording only plays back the same game from the state it starts in
+        input = new RecordingInput(new KeyboardInput(), new InputRecording(levelFile, snapshot));
+
+        // The game may not be over any more, and no time has passed
+        isGameOver = simulation.isLevelComplete();
+        showText(isGameOver ? "GAME COMPLETED" : null, getWidth() / 2, getHeight() / 2);
+        percentShown = -1;
+        timestep.reset();
+        System.out.println("Snapshot restored in " + ((System.nanoTime() - startTime) / 1000) + " microseconds");
     }
 
-    private void leftBorder()
+    /**
+     * Save the controls played so far, so the game can be played back (see HeadlessRunner).
+     */
+    public void saveRecording(String fileName)
     {
-        // Make the tiles the width of the world
-        final int tilesToCreate = getHeight();
+        InputRecording recording = input.getRecording();
+        try
+        {
+            recording.save(fileName);
+            System.out.println(recording.getTicks() + " ticks of play (" + recording.getRunCount()
+                               + " runs) saved to " + fileName);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Could not save recording to " + fileName + ": " + e.getMessage());
+        }
+    }
 
-        // Loop to create and add the tile objects
-        for (int i = 0; i < tilesToCreate; i += 1)
+    /**
+     * Save the frame timings recorded so far to a CSV file (see FrameStats for the columns).
+     */
+    public void saveFrameStats(String fileName)
+    {
+        try
+        {
+            frameStats.writeCsv(fileName);
+            System.out.println("Frame timings for " + frameStats.getFrames() + " frames saved to " + fileName);
+        }
+        catch (IOException e)
         {
-            // Add MetalPlates objects at bottom of screen.
-            int x = HALF_TILE_SIZE;
-            int y = i * TILE_SIZE + HALF_TILE_SIZE;
+            System.out.println("Could not save frame timings to " + fileName + ": " + e.getMessage());
+        }
+    }
 
-            // Create a MetalPlate tile
-            MetalPlate metalBorder = new MetalPlate(x, y);
+    /**
+     * Play the digging sound, and mark a cell of ground that has just had some dirt dug out
+     * to be redrawn (if its chunk is loaded).
+     */
+    public void cellCarved(int column, int row)
+    {
+        // Asked for with every cell carved, but only heard a few times a second
+        sounds.play(Sounds.DIG, System.nanoTime());
 
-            // Add the objects
-            addObject(metalBorder, x, y);
+        LevelChunk chunk = tileGrid.getChunkAtColumn(column);
+        if (chunk != null && chunk.getGround() != null && chunk.getGround().showsColumn(column))
+        {
+            // Redrawn once, at the end of the frame, with any other cells dug this frame
+            if (chunk.getGround().markDirty(column, row))
+            {
+                dirtyGrounds.add(chunk.getGround());
+            }
         }
     }
 
-    private void rightBorder()
+    /**
+     * Make sure the chunks near the hero have been created, and throw away chunks
+     * that are well away from the hero.
+     * 
+     * Only a handful of chunks are ever loaded, so this costs the same no matter
+     * how long the level is.
+     */
+    private void updateLoadedChunks()
     {
-        // Make the tiles the width of the world
-        final int tilesToCreate = getHeight();
+        // Chunks within a screen's width either side of the hero must be loaded
+        int heroX = simulation.getHero().getX();
+        int firstNeeded = Math.max(Math.floorDiv(heroX - VISIBLE_WIDTH, CHUNK_WIDTH), 0);
+        int lastNeeded = Math.min(Math.floorDiv(heroX + VISIBLE_WIDTH, CHUNK_WIDTH), tileGrid.getChunkCount() - 1);
+
+        // Throw away chunks more than one chunk beyond that (dug ground is kept in the terrain)
+        Iterator<LevelChunk> loaded = loadedChunks.iterator();
+        while (loaded.hasNext())
+        {
+            LevelChunk chunk = loaded.next();
+            if (chunk.getIndex() < firstNeeded - 1 || chunk.getIndex() > lastNeeded + 1)
+            {
+                unloadChunk(chunk);
+                loaded.remove();
+            }
+        }
 
-        // Loop to create and add the tile objects
-        for (int i = 0; i < tilesToCreate; i += 1)
+        // Create chunks the hero has come close to
+        for (int index = firstNeeded; index <= lastNeeded; index += 1)
         {
-            // Add MetalPlates objects at bottom of screen.
-            int x = SCROLLABLE_WIDTH - HALF_TILE_SIZE;
-            int y = i * TILE_SIZE + HALF_TILE_SIZE;
+            if (tileGrid.getChunkAtColumn(index * LevelChunk.COLUMNS) == null)
+            {
+                loadChunk(index);
+            }
+        }
+    }
 
-            // Create a MetalPlate tile
-            MetalPlate metalBorder = new MetalPlate(x, y);
+    /**
+     * Create the tiles for one chunk of the level.
+     */
+    private void loadChunk(int index)
+    {
+        LevelChunk chunk = new LevelChunk(index);
+        addGround(chunk);
+        tileGrid.addChunk(chunk);
+        loadedChunks.add(chunk);
 
-            // Add the objects
-            addObject(metalBorder, x, y);
+        // If any of it is already on screen, show it
+        for (int column = chunk.getFirstColumn(); column <= chunk.getLastColumn(); column += 1)
+        {
+            if (column >= firstVisibleColumn && column <= lastVisibleColumn)
+            {
+                showTilesInColumn(column);
+            }
         }
     }
 
     /**
-     * Act
+     * Throw away the tiles for one chunk of the level (giving them back to the pool).
+     */
+    private void unloadChunk(LevelChunk chunk)
+    {
+        for (Tile tile : chunk.getTiles())
+        {
+            if (tile.getWorld() == this)
+            {
+                removeObject(tile);
+                visibleTiles.remove(tile);
+            }
+        }
+        tileGrid.removeChunk(chunk);
+        TilePool.release(chunk);
+    }
+
+    /**
+     * Move the camera horizontally, to make it look like the hero is moving.
      * 
-     * This method is called approximately 60 times per second.
+     * Only the tiles that can be seen are touched, so this costs the same
+     * no matter how long the level is.
      */
-    public void act()
+    public void scrollBy(int deltaX)
     {
+        camera.moveBy(deltaX);
+        updateVisibleTiles();
+        parallax.show(getBackground(), camera.getX());
     }
 
     /**
-     * Add the hero to the world.
+     * Return the camera that decides which part of the scrollable world is showing.
      */
-    private void addHero()
+    public Camera getCamera()
+    {
+        return camera;
+    }
+
+    /**
+     * Return the grid used to check what is solid in the scrollable world.
+     */
+    public TileGrid getTileGrid()
     {
-        // Initial horizontal position
-        int initialX = TILE_SIZE * 3;
+        return tileGrid;
+    }
 
-        // Instantiate the hero object
-        theHero = new Taizo(initialX);
+    /**
+     * Bring the world's tiles in line with where the camera is looking.
+     */
+    private void updateVisibleTiles()
+    {
+        // Columns of the scrollable world that are now on screen
+        int first = Math.floorDiv(camera.getX(), TILE_SIZE);
+        int last = Math.floorDiv(camera.getX() + VISIBLE_WIDTH - 1, TILE_SIZE);
 
-        // Add hero in bottom left corner of screen
-        addObject(theHero, initialX, getHeight() / 4 * 3);
+        // Re-position the tiles already showing, and remove those that have scrolled away
+        Iterator<Tile> showing = visibleTiles.iterator();
+        while (showing.hasNext())
+        {
+            Tile tile = showing.next();
+            if (tile.getLastColumn() < first || tile.getFirstColumn() > last)
+            {
+                removeObject(tile);
+                showing.remove();
+            }
+            else
+            {
+                tile.project(camera);
+            }
+        }
+
+        // Add tiles from columns that have just come into view
+        for (int column = first; column <= last; column += 1)
+        {
+            if (column < firstVisibleColumn || column > lastVisibleColumn)
+            {
+                showTilesInColumn(column);
+            }
+        }
+        firstVisibleColumn = first;
+        lastVisibleColumn = last;
     }
 
     /**
-     * Add blocks to create the ground to walk on at top-right of scrollable world.
+     * Put any tiles covering the given column that are not yet in the world into it.
      */
-    private void addGround()
+    private void showTilesInColumn(int column)
     {
-        // Constants to control dimensions of the ground at end of world
-        final int COUNT_OF_GROUND = 39;
-        final int GROUND_BELOW_COLUMNS = COUNT_OF_GROUND;
-        final int GROUND_BELOW_ROWS = 18;
-        final int COUNT_OF_GROUND_BELOW = GROUND_BELOW_COLUMNS * GROUND_BELOW_ROWS;
-        
-        // Instead of having 2 sets of ground, just have one big section
-        for (int i = 0; i < GROUND_BELOW_COLUMNS; i += 1)
+        for (Tile tile : tileGrid.getTilesInColumn(column))
         {
-            for (int j = 0; j < GROUND_BELOW_ROWS; j += 1)
+            if (tile.getWorld() != this)
             {
-                // Position in wider scrollable world
-                int x = i * TILE_SIZE + 5 * TILE_SIZE + HALF_TILE_SIZE;
-                int y = HALF_TILE_SIZE + TILE_SIZE * (j + 1);
+                addObject(tile, camera.toVisibleX(tile.getScrollableWorldX()), tile.getScrollableWorldY());
+                visibleTiles.add(tile);
+            }
+        }
+    }
+
+    /**
+     * Set up the scenery behind the level (it shows wherever the level is empty or dug out).
+     *
+     * TO STUDENTS: Add your own layers here, back to front: the image, where its top edge
+     *              goes, how many copies to stack down the screen, the gap between copies
+     *              across, and how fast the layer scrolls (as a percentage of how fast the
+     *              level does). The back layer should cover the whole screen.
+     */
+    private void addBackgroundLayers()
+    {
+        parallax = new ParallaxBackground(VISIBLE_WIDTH);
+
+        // Sky, far away (two copies down, as the picture is shorter than the screen)
+        parallax.addLayer("background.png", 0, 2, 0, 10);
+
+        // Clouds, a little nearer
+        parallax.addLayer("cloud.png", TILE_SIZE * 2, 1, TILE_SIZE * 4, 25);
+
+        // A fence along the bottom, nearer still
+        parallax.addLayer("fence.png", VISIBLE_HEIGHT - TILE_SIZE * 2, 1, 0, 50);
+
+        parallax.show(getBackground(), 0);
+    }
 
-                // Create object and add it
-                Ground ground = new Ground(x, y);
-                addObject(ground, x, y);
+    /**
+     * Add the hero to the world.
+     */
+    private void addHero()
+    {
+        // Instantiate the hero object, showing the simulation's hero
+        Hero hero = simulation.getHero();
+        theHero = new Taizo(hero);
+
+        // Add hero where the level file says
+        addObject(theHero, camera.toVisibleX(hero.getX()), hero.getY());
+    }
+
+    /**
+     * Add the piece of terrain (dirt and metal plates) that falls in one chunk (if the chunk has any).
+     */
+    private void addGround(LevelChunk chunk)
+    {
+        // Columns of the level within this chunk
+        int firstColumn = chunk.getFirstColumn();
+        int lastColumn = Math.min(chunk.getLastColumn(), level.getColumns() - 1);
+        int columnCount = lastColumn - firstColumn + 1;
+
+        // Is there any terrain in these columns?
+        boolean hasTerrain = false;
+        for (int column = firstColumn; column <= lastColumn && !hasTerrain; column += 1)
+        {
+            for (int row = 0; row < level.getRows() && !hasTerrain; row += 1)
+            {
+                hasTerrain = level.getTile(column, row) != LevelData.EMPTY;
             }
         }
+        if (!hasTerrain)
+        {
+            return;
+        }
+
+        // Position in wider scrollable world (actors are positioned by their centre)
+        int x = firstColumn * TILE_SIZE + columnCount * TILE_SIZE / 2;
+        int y = scrollableHeight / 2;
+
+        // Reuse a ground from a chunk that was thrown away if there is one, and add it
+        Ground ground = TilePool.obtainGround(x, y, level, simulation.getDigMask(), firstColumn, columnCount);
+        chunk.add(ground);
     }
 
     /**
@@ -220,6 +741,54 @@ public class SideScrollingWorld extends World
         return theHero;
     }
 
+    /**
+     * Width of the scrollable world (the whole level), in pixels.
+     */
+    public int getScrollableWidth()
+    {
+        return scrollableWidth;
+    }
+
+    /**
+     * Height of the scrollable world (the whole level), in pixels.
+     */
+    public int getScrollableHeight()
+    {
+        return scrollableHeight;
+    }
+
+    /**
+     * Return the game being shown.
+     */
+    public Simulation getSimulation()
+    {
+        return simulation;
+    }
+
+    /**
+     * Where each frame's time goes.
+     */
+    public FrameStats getFrameStats()
+    {
+        return frameStats;
+    }
+
+    /**
+     * Describe how long each part of startup took, how many chunks and tiles are loaded,
+     * and how many actors are in the world right now (shown in the terminal).
+     */
+    public String getStartupReport()
+    {
+        int tileCount = 0;
+        for (LevelChunk chunk : loadedChunks)
+        {
+            tileCount += chunk.getTiles().size();
+        }
+        return startup.describe() + "; " + loadedChunks.size() + " chunks, " + tileCount + " tiles ("
+               + TilePool.describe() + "), " + parallax.getLayerCount() + " background layers, "
+               + numberOfObjects() + " actors in the world";
+    }
+
     /**
      * Set game over
      */
@@ -234,8 +803,9 @@ public class SideScrollingWorld extends World
      */
     private void prepare()
     {
-        Pooka pooka = new Pooka();
-        addObject(pooka,81,77);
+        // Show the enemies placed in the level file on one layer
+        entityLayer = new EntityLayer(simulation.getEntities(), VISIBLE_WIDTH, VISIBLE_HEIGHT);
+        addObject(entityLayer, VISIBLE_WIDTH / 2, HALF_VISIBLE_HEIGHT);
+        entityLayer.show(camera, 0);
     }
 }
-
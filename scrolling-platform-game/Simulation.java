@@ -0,0 +1,470 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The game itself: the level, the hero, the enemies and the rules for how they move,
+ * written in plain Java with nothing to do with drawing.
+ *
+ * Each call to step() advances the game by one tick. SideScrollingWorld steps it once
+ * per act and shows the result with actors; it can equally be stepped without a display
+ * (see HeadlessRunner), as fast as the computer allows.
+ *
+ * Positions are in pixels in the scrollable world (the whole level).
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Simulation
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Tile size in pixels for world elements (blocks, clouds, etc)
+    public static final int TILE_SIZE = 32;
+
+    // Returned when there is nothing solid at a position, or in the way of a move
+    public static final int NOT_SOLID = Integer.MIN_VALUE;
+
+    // Dots that must be carved out of a cell before it counts as dug
+    public static final int CELL_DUG_DOTS = DigMask.DOTS_IN_CELL / 2;
+
+    // The layout of the level
+    private LevelData level;
+
+    // Which cells have been dug, exactly where the dirt is left, and how much is left where
+    private Terrain terrain;
+    private DigMask digMask;
+    private TerrainIndex terrainIndex;
+
+    // Who is in the level
+    private Hero hero;
+    private Entities entities;
+
+    // The way to the hero from every open cell, shared by all the enemies
+    private FlowField flowField;
+
+    // Number of ticks so far
+    private int tick;
+
+    // Whether all the ground has been dug out
+    private boolean levelComplete;
+
+    // Told about each cell that has dirt carved out of it (may be null)
+    private DigListener digListener;
+
+    // Dots of dirt carved by the last call to dig()
+    private int dotsCarved;
+
+    // Times the hero and the enemies each tick (may be null)
+    private FrameStats frameStats;
+
+    // Number of collision queries (solid, metal and dig checks) so far
+    private long collisionQueries;
+
+    /**
+     * Constructor
+     *
+     * Sets up the level as it is at the start, with the hero and enemies where the level places them.
+     */
+    public Simulation(LevelData level)
+    {
+        this.level = level;
+        terrain = level.createTerrain();
+        digMask = new DigMask(terrain);
+        terrainIndex = new TerrainIndex(terrain);
+        hero = new Hero(level.getHeroX(), level.getHeroY());
+
+        entities = new Entities(level.getSpawnCount());
+        for (int i = 0; i < level.getSpawnCount(); i += 1)
+        {
+            if (level.getSpawnType(i) == LevelData.SPAWN_POOKA)
+            {
+                entities.add(Entities.POOKA, level.getSpawnX(i), level.getSpawnY(i), 0, 0);
+            }
+        }
+
+        flowField = new FlowField(this, level.getColumns(), level.getRows());
+        updateFlowField();
+
+        tick = 0;
+        levelComplete = false;
+    }
+
+    /**
+     * Advance the game by one tick.
+     */
+    public void step(GameInput input)
+    {
+        tick += 1;
+        input.nextTick();
+        if (frameStats == null)
+        {
+            hero.step(this, input);
+            stepEnemies();
+            return;
+        }
+
+        frameStats.begin(FrameStats.HERO);
+        hero.step(this, input);
+        frameStats.end(FrameStats.HERO);
+
+        frameStats.begin(FrameStats.ENEMIES);
+        stepEnemies();
+        frameStats.end(FrameStats.ENEMIES);
+    }
+
+    /**
+     * Advance every enemy by one tick, with the flow field leading
+     * to wherever the hero is now.
+     */
+    private void stepEnemies()
+    {
+        updateFlowField();
+        entities.step(this);
+    }
+
+    /**
+     * Point the flow field at the hero's cell (it is only searched again if that changed).
+     */
+    private void updateFlowField()
+    {
+        // Nobody to lead anywhere
+        if (entities.getCount(Entities.POOKA) == 0)
+        {
+            return;
+        }
+        flowField.setGoal(Math.floorDiv(hero.getX(), TILE_SIZE), Math.floorDiv(hero.getY(), TILE_SIZE));
+    }
+
+    /**
+     * Write the state of the game (for a Snapshot): the tick, the dirt left, the hero
+     * and the entities. Anything that can be worked out from those is left out.
+     */
+    public void writeState(DataOutputStream out) throws IOException
+    {
+        out.writeInt(tick);
+        out.writeBoolean(levelComplete);
+        digMask.writeState(out);
+        hero.writeState(out);
+        entities.writeState(out);
+    }
+
+    /**
+     * Read state written by writeState() and check that it makes sense for this level
+     * (the hero inside it, say), without changing the game. Throws IOException if the
+     * state is cut off or doesn't make sense.
+     */
+    public void checkState(DataInputStream in) throws IOException
+    {
+        int stateTick = in.readInt();
+        if (stateTick < 0)
+        {
+            throw new IOException("Bad tick: " + stateTick);
+        }
+        in.readBoolean();
+        digMask.checkState(in);
+        Hero.checkState(in, getWidth(), getHeight());
+        Entities.checkState(in);
+    }
+
+    /**
+     * Put the game back the way writeState() found it (in the same level). The state
+     * should have passed checkState() first.
+     *
+     * The dug cells, the counts of dirt left, and the flow field are worked out again
+     * from the dirt. Nobody is told about the cells that changed, so whatever is drawing
+     * the ground must redraw all of it.
+     */
+    public void readState(DataInputStream in) throws IOException
+    {
+        tick = in.readInt();
+        levelComplete = in.readBoolean();
+        digMask.readState(in);
+        hero.readState(in);
+        entities.readState(in);
+
+        // A cell is dug when enough of it has been carved out, just as in dig()
+        terrain = level.createTerrain();
+        for (int row = 0; row < terrain.getRows(); row += 1)
+        {
+            for (int column = 0; column < terrain.getColumns(); column += 1)
+            {
+                if (digMask.getCarved(column, row) >= CELL_DUG_DOTS)
+                {
+                    terrain.dig(column, row);
+                }
+            }
+        }
+        terrainIndex = new TerrainIndex(terrain, terrainIndex.getInitial());
+
+        flowField = new FlowField(this, level.getColumns(), level.getRows());
+        updateFlowField();
+    }
+
+    /**
+     * Is the given cell solid (a metal plate, or ground that hasn't been dug)?
+     *
+     * This is the whole-cell view used to find paths; a cell counts as dug once
+     * CELL_DUG_DOTS of its dots have been carved out.
+     */
+    public boolean isSolid(int column, int row)
+    {
+        return level.getTile(column, row) == LevelData.METAL || terrain.isSolid(column, row);
+    }
+
+    /**
+     * Sweep a box (given by its left and right edges, right exclusive) straight down from
+     * its bottom edge by up to the given distance, and find the top of the first solid thing
+     * it would hit: a metal plate, or a dot of dirt. Returns NOT_SOLID if the way is clear.
+     *
+     * Everything between the box and where it would end up is checked, a row of dots
+     * at a time, so nothing is passed through however far the box moves in one tick.
+     */
+    public int sweepDown(int left, int right, int bottom, int distance)
+    {
+        collisionQueries += 1;
+        int metalRow = -1;
+        for (int top = Math.floorDiv(bottom, DigMask.DOT_SIZE) * DigMask.DOT_SIZE; top < bottom + distance; top += DigMask.DOT_SIZE)
+        {
+            // Metal plates fill whole cells: check each row of cells once
+            int row = Math.floorDiv(top, TILE_SIZE);
+            if (row != metalRow)
+            {
+                metalRow = row;
+                if (isMetalBetween(left, right, row))
+                {
+                    return Math.max(row * TILE_SIZE, bottom);
+                }
+            }
+            if (digMask.isAnySolid(left, top, right, top + DigMask.DOT_SIZE))
+            {
+                return Math.max(top, bottom);
+            }
+        }
+        return NOT_SOLID;
+    }
+
+    /**
+     * Sweep a box (left and right edges, right exclusive) straight up from its top edge
+     * by up to the given distance, and find the bottom of the first metal plate it would
+     * hit (dirt is dug through, so doesn't stop it). Returns NOT_SOLID if the way is clear.
+     */
+    public int sweepUp(int left, int right, int top, int distance)
+    {
+        collisionQueries += 1;
+        for (int row = Math.floorDiv(top - 1, TILE_SIZE); row >= Math.floorDiv(top - distance, TILE_SIZE); row -= 1)
+        {
+            if (isMetalBetween(left, right, row))
+            {
+                return Math.min((row + 1) * TILE_SIZE, top);
+            }
+        }
+        return NOT_SOLID;
+    }
+
+    /**
+     * Sweep a box (top and bottom edges, bottom exclusive) across from its leading edge by
+     * the given distance (negative for leftwards), and find the face of the first metal plate
+     * it would hit (dirt is dug through, so doesn't stop it). Returns NOT_SOLID if the way is clear.
+     *
+     * The leading edge is the box's right edge (exclusive) when moving right, and its left
+     * edge when moving left.
+     */
+    public int sweepAcross(int top, int bottom, int edge, int distance)
+    {
+        collisionQueries += 1;
+        int step = distance > 0 ? 1 : -1;
+        int first = distance > 0 ? Math.floorDiv(edge, TILE_SIZE) : Math.floorDiv(edge - 1, TILE_SIZE);
+        int last = distance > 0 ? Math.floorDiv(edge + distance - 1, TILE_SIZE) : Math.floorDiv(edge + distance, TILE_SIZE);
+        for (int column = first; column != last + step; column += step)
+        {
+            for (int row = Math.floorDiv(top, TILE_SIZE); row <= Math.floorDiv(bottom - 1, TILE_SIZE); row += 1)
+            {
+                if (level.getTile(column, row) == LevelData.METAL)
+                {
+                    return distance > 0 ? Math.max(column * TILE_SIZE, edge) : Math.min((column + 1) * TILE_SIZE, edge);
+                }
+            }
+        }
+        return NOT_SOLID;
+    }
+
+    /**
+     * Is there a metal plate in the given row, under any part of the given span of pixels (right exclusive)?
+     */
+    private boolean isMetalBetween(int left, int right, int row)
+    {
+        for (int column = Math.floorDiv(left, TILE_SIZE); column <= Math.floorDiv(right - 1, TILE_SIZE); column += 1)
+        {
+            if (level.getTile(column, row) == LevelData.METAL)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Carve the dirt out of the given box (right and bottom edges exclusive), a dot at a time.
+     *
+     * A cell that has had CELL_DUG_DOTS of its dots carved out counts as dug. Returns
+     * the number of cells that became dug; getDotsCarved() tells how many dots went.
+     */
+    public int dig(int left, int top, int right, int bottom)
+    {
+        collisionQueries += 1;
+        dotsCarved = digMask.carve(left, top, right, bottom);
+        if (dotsCarved == 0)
+        {
+            return 0;
+        }
+
+        int dug = 0;
+        for (int i = 0; i < digMask.getTouchedCount(); i += 1)
+        {
+            int cell = digMask.getTouchedCell(i);
+            int column = cell % digMask.getColumns();
+            int row = cell / digMask.getColumns();
+            if (digMask.getCarved(column, row) >= CELL_DUG_DOTS && terrain.dig(column, row))
+            {
+                dug += 1;
+                terrainIndex.cellDug(column, row);
+                flowField.cellOpened(column, row);
+            }
+            if (digListener != null)
+            {
+                digListener.cellCarved(column, row);
+            }
+        }
+
+        // Is that the last of it?
+        if (dug > 0 && terrainIndex.getRemaining() == 0)
+        {
+            levelComplete = true;
+        }
+        return dug;
+    }
+
+    /**
+     * Ask to be told about every cell that has dirt carved out of it from now on.
+     */
+    public void setDigListener(DigListener listener)
+    {
+        digListener = listener;
+    }
+
+    /**
+     * Time the hero and the enemies each tick from now on (null to stop).
+     */
+    public void setFrameStats(FrameStats stats)
+    {
+        frameStats = stats;
+    }
+
+    /**
+     * Number of collision queries (solid, metal and dig checks) so far.
+     */
+    public long getCollisionQueries()
+    {
+        return collisionQueries;
+    }
+
+    /**
+     * Width of the level, in pixels.
+     */
+    public int getWidth()
+    {
+        return level.getColumns() * TILE_SIZE;
+    }
+
+    /**
+     * Height of the level, in pixels.
+     */
+    public int getHeight()
+    {
+        return level.getRows() * TILE_SIZE;
+    }
+
+    /**
+     * The layout of the level.
+     */
+    public LevelData getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * The grid that tracks which ground has been dug.
+     */
+    public Terrain getTerrain()
+    {
+        return terrain;
+    }
+
+    /**
+     * Exactly where the dirt is left, a dot at a time.
+     */
+    public DigMask getDigMask()
+    {
+        return digMask;
+    }
+
+    /**
+     * Dots of dirt carved by the last call to dig().
+     */
+    public int getDotsCarved()
+    {
+        return dotsCarved;
+    }
+
+    /**
+     * How much dirt is left in the level, or in any part of it.
+     */
+    public TerrainIndex getTerrainIndex()
+    {
+        return terrainIndex;
+    }
+
+    /**
+     * The hero.
+     */
+    public Hero getHero()
+    {
+        return hero;
+    }
+
+    /**
+     * The enemies.
+     */
+    public Entities getEntities()
+    {
+        return entities;
+    }
+
+    /**
+     * The way to the hero from every open cell.
+     */
+    public FlowField getFlowField()
+    {
+        return flowField;
+    }
+
+    /**
+     * Number of ticks so far.
+     */
+    public int getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * Has all the ground been dug out?
+     */
+    public boolean isLevelComplete()
+    {
+        return levelComplete;
+    }
+}
@@ -0,0 +1,210 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The whole state of a game at one moment, packed small enough to keep in memory
+ * (for instant retry and checkpoints) or write to a file (for a quick-save).
+ *
+ * A snapshot holds only what can't be worked out again: the tick, every dot of dirt
+ * left, the hero, and the enemies (see Simulation.writeState()).
+ * The dug cells, the counts of dirt left and the flow field are rebuilt when it is
+ * restored. The level itself isn't included, so a snapshot can only be restored
+ * into a game of the same level.
+ *
+ * Layout (big-endian, compressed with Deflate as a whole):
+ *
+ *   magic "DIGS", version, columns, rows, the game state, then a CRC-32 of everything before it
+ *
+ * Dirt is mostly whole runs of dug or undug dots, so it packs down to a small
+ * fraction of its size.
+ *
+ * Restoring a snapshot uncompresses it, checks the checksum, and reads the state through
+ * once to check every part of it makes sense for the level (see Simulation.checkState())
+ * before the game is touched, so a damaged or cut-off snapshot is turned down and leaves
+ * the game as it was.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Snapshot
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Identifies a snapshot ("DIGS"), and which version of the layout it uses
+    private static final int MAGIC = 0x44494753;
+    private static final int VERSION = 3;
+
+    // Bytes before the game state (magic, version, columns and rows), and in the checksum after it
+    private static final int HEADER_SIZE = 16;
+    private static final int CHECKSUM_SIZE = 4;
+
+    // The compressed state
+    private byte[] data;
+
+    /**
+     * Constructor
+     *
+     * Wraps state that has already been compressed.
+     */
+    private Snapshot(byte[] data)
+    {
+        this.data = data;
+    }
+
+    /**
+     * Take a snapshot of a game as it is now.
+     */
+    public static Snapshot take(Simulation simulation)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CheckedOutputStream checked = new CheckedOutputStream(new DeflaterOutputStream(bytes), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(simulation.getLevel().getColumns());
+            out.writeInt(simulation.getLevel().getRows());
+            simulation.writeState(out);
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+        }
+        catch (IOException e)
+        {
+            // Only memory is written to
+            throw new IllegalStateException("Could not take a snapshot", e);
+        }
+        return new Snapshot(bytes.toByteArray());
+    }
+
+    /**
+     * Put a game (of the same level) back the way it was when the snapshot was taken.
+     *
+     * Throws IllegalArgumentException (and leaves the game alone) if the snapshot is
+     * damaged or of a different level.
+     */
+    public void restore(Simulation simulation)
+    {
+        byte[] bytes = uncompress();
+        int stateSize = bytes.length - HEADER_SIZE - CHECKSUM_SIZE;
+        try
+        {
+            if (stateSize < 0)
+            {
+                throw new IllegalArgumentException("Snapshot is damaged: too short");
+            }
+
+            // Everything before the checksum must add up to it
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes, 0, bytes.length - CHECKSUM_SIZE);
+            DataInputStream stored = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - CHECKSUM_SIZE, CHECKSUM_SIZE));
+            if (stored.readInt() != (int) checksum.getValue())
+            {
+                throw new IllegalArgumentException("Snapshot is damaged: checksum doesn't match");
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - CHECKSUM_SIZE));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                throw new IllegalArgumentException("Not a version " + VERSION + " snapshot");
+            }
+            if (in.readInt() != simulation.getLevel().getColumns() || in.readInt() != simulation.getLevel().getRows())
+            {
+                throw new IllegalArgumentException("Snapshot is of a different level");
+            }
+
+            // Read the state through once to check it, and only then into the game
+            simulation.checkState(in);
+            if (in.read() != -1)
+            {
+                throw new IllegalArgumentException("Snapshot is damaged: data left over at the end");
+            }
+            simulation.readState(new DataInputStream(new ByteArrayInputStream(bytes, HEADER_SIZE, stateSize)));
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Snapshot is damaged", e);
+        }
+    }
+
+    /**
+     * The snapshot uncompressed: the header, the game state and the checksum.
+     */
+    private byte[] uncompress()
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length * 4);
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data)))
+        {
+            byte[] buffer = new byte[8192];
+            int count = in.read(buffer);
+            while (count != -1)
+            {
+                bytes.write(buffer, 0, count);
+                count = in.read(buffer);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Snapshot is damaged", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The compressed snapshot, as stored in a file (or a recording).
+     */
+    public byte[] getData()
+    {
+        return data.clone();
+    }
+
+    /**
+     * A snapshot from data given by getData() (it is checked when it is restored).
+     */
+    public static Snapshot fromData(byte[] data)
+    {
+        return new Snapshot(data.clone());
+    }
+
+    /**
+     * Size of the snapshot, in bytes.
+     */
+    public int getSize()
+    {
+        return data.length;
+    }
+
+    /**
+     * Write the snapshot to a file.
+     */
+    public void save(String fileName) throws IOException
+    {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName)))
+        {
+            out.write(data);
+        }
+    }
+
+    /**
+     * Read a snapshot from a file (it is checked when it is restored).
+     */
+    public static Snapshot load(String fileName) throws IOException
+    {
+        return new Snapshot(Files.readAllBytes(Paths.get(fileName)));
+    }
+}
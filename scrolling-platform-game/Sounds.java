@@ -0,0 +1,211 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.util.concurrent.Executor;
+
+/**
+ * The game's music and sound effects, loaded in the background so the world starts
+ * without waiting for them.
+ *
+ * The music is opened and started on a worker thread. Each sound effect gets a fixed
+ * set of voices (copies of the sound), opened once on the same worker, and each is
+ * played through once at no volume so that it is ready to go. Playing an effect then
+ * only starts the next voice in turn; if that voice is still going, it is cut off
+ * (it is the oldest one).
+ *
+ * Each effect also has a shortest time between plays. Asking for it again sooner is
+ * ignored, so an effect can be asked for every tick (digging, say) and still only be
+ * heard a few times a second.
+ *
+ * Effects asked for before loading has finished are skipped.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Sounds
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Sound effect numbers
+    public static final int DIG = 0;
+
+    // Sound file, number of voices, and shortest time between plays (in nanoseconds)
+    // for each sound effect
+    private static final String[] FILES = { "slurp.wav" };
+    private static final int[] VOICES = { 4 };
+    private static final long[] MINIMUM_GAP_NANOS = { 90000000L };
+
+    // Music file, and how loud the music and effects are (0 to 100)
+    private static final String MUSIC_FILE = "ThemeSong.mp3";
+    private static final int MUSIC_VOLUME = 100;
+    private static final int EFFECT_VOLUME = 70;
+
+    // The music once it is loaded (null until then), and whether it should be playing
+    private GreenfootSound music;
+    private boolean musicWanted;
+
+    // Voices for each effect once they are loaded (null until then), and which voice plays next
+    private volatile GreenfootSound[][] voices;
+    private int[] nextVoice;
+
+    // When each effect was last played (System.nanoTime()), and whether it has been played yet
+    private long[] lastPlayed;
+    private boolean[] played;
+
+    // Nanoseconds spent loading, once it has finished (-1 until then)
+    private volatile long loadNanos;
+
+    /**
+     * Constructor
+     *
+     * Starts loading the music and effects on one of the given workers and returns straight away.
+     */
+    public Sounds(Executor workers)
+    {
+        nextVoice = new int[FILES.length];
+        lastPlayed = new long[FILES.length];
+        played = new boolean[FILES.length];
+        loadNanos = -1;
+
+        workers.execute(new Runnable()
+        {
+            public void run()
+            {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Open the music (starting it if it has been asked for), then every effect's voices.
+     */
+    private void load()
+    {
+        long startTime = System.nanoTime();
+
+        GreenfootSound loadedMusic = open(MUSIC_FILE);
+        if (loadedMusic != null)
+        {
+            loadedMusic.setVolume(MUSIC_VOLUME);
+        }
+        synchronized (this)
+        {
+            music = loadedMusic;
+            if (music != null && musicWanted)
+            {
+                music.playLoop();
+            }
+        }
+
+        GreenfootSound[][] loadedVoices = new GreenfootSound[FILES.length][];
+        for (int effect = 0; effect < FILES.length; effect += 1)
+        {
+            loadedVoices[effect] = new GreenfootSound[VOICES[effect]];
+            for (int voice = 0; voice < VOICES[effect]; voice += 1)
+            {
+                GreenfootSound sound = open(FILES[effect]);
+                if (sound == null)
+                {
+                    // No such file: leave the effect out
+                    loadedVoices[effect] = new GreenfootSound[0];
+                    break;
+                }
+
+                // Play it silently once, so the sound is decoded before it is needed
+                sound.setVolume(0);
+                sound.play();
+                sound.stop();
+                sound.setVolume(EFFECT_VOLUME);
+                loadedVoices[effect][voice] = sound;
+            }
+        }
+        voices = loadedVoices;
+        loadNanos = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Open a sound file, or return null if it can't be opened.
+     */
+    private static GreenfootSound open(String file)
+    {
+        try
+        {
+            return new GreenfootSound(file);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.err.println("Could not open sound " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Play the music over and over (as soon as it is loaded, if it isn't yet).
+     */
+    public synchronized void startMusic()
+    {
+        musicWanted = true;
+        if (music != null)
+        {
+            music.playLoop();
+        }
+    }
+
+    /**
+     * Stop the music.
+     */
+    public synchronized void stopMusic()
+    {
+        musicWanted = false;
+        if (music != null)
+        {
+            music.stop();
+        }
+    }
+
+    /**
+     * Play a sound effect, unless it was played too recently or isn't loaded yet.
+     *
+     * Now is the current time from System.nanoTime().
+     */
+    public void play(int effect, long now)
+    {
+        GreenfootSound[][] loaded = voices;
+        if (loaded == null || loaded[effect].length == 0)
+        {
+            return;
+        }
+        if (played[effect] && now - lastPlayed[effect] < MINIMUM_GAP_NANOS[effect])
+        {
+            return;
+        }
+        played[effect] = true;
+        lastPlayed[effect] = now;
+
+        // Take the next voice in turn, cutting it off if it is still playing
+        GreenfootSound voice = loaded[effect][nextVoice[effect]];
+        nextVoice[effect] = (nextVoice[effect] + 1) % loaded[effect].length;
+        if (voice.isPlaying())
+        {
+            voice.stop();
+        }
+        voice.play();
+    }
+
+    /**
+     * Has everything finished loading?
+     */
+    public boolean isLoaded()
+    {
+        return voices != null;
+    }
+
+    /**
+     * Nanoseconds it took to load everything, or -1 if it hasn't finished.
+     */
+    public long getLoadNanos()
+    {
+        return loadNanos;
+    }
+}
@@ -0,0 +1,178 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Every sprite image the game uses, loaded once and shared by all actors.
+ *
+ * Each image file is decoded, and a mirrored (left-facing) copy made, either all at
+ * once on worker threads while the game starts (see Startup), or else the first time
+ * the game needs a sprite. After that, actors
+ * swap images by number, with no file names to look up and nothing new created.
+ *
+ * The images handed out are shared, so don't draw on them.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Sprites
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Sprite numbers (the walking frames follow one another)
+    public static final int TAIZO_STANDING = 0;
+    public static final int TAIZO_WALK = 1;
+    public static final int COUNT_OF_TAIZO_WALK = Hero.COUNT_OF_WALKING_IMAGES;
+    public static final int POOKA = 3;
+    public static final int GROUND = 4;
+    public static final int METAL_PLATE = 5;
+
+    // Image file for each sprite number
+    private static final String[] FILES = {
+        "taizo-starting.png",
+        "taizo-walk-right-0.png",
+        "taizo-walk-right-1.png",
+        "pooka.png",
+        "ground.png",
+        "metal-plate.png",
+    };
+
+    // Each sprite as drawn, then mirrored: sprite n is at 2n, its mirror at 2n + 1
+    private static volatile GreenfootImage[] frames;
+
+    // Nanoseconds it took to decode every sprite on the workers (-1 until that has finished)
+    private static volatile long loadNanos = -1;
+
+    // Rotated copies of sprites, made the first time each angle is asked for
+    // (indexed by sprite, then by whole degrees clockwise)
+    private static GreenfootImage[][] rotated = new GreenfootImage[FILES.length][];
+
+    /**
+     * Decode every sprite image (and make its mirror), if that hasn't been done yet.
+     */
+    public static void preload()
+    {
+        if (frames != null)
+        {
+            return;
+        }
+
+        GreenfootImage[] loaded = new GreenfootImage[FILES.length * 2];
+        for (int i = 0; i < FILES.length; i += 1)
+        {
+            loaded[i * 2] = new GreenfootImage(FILES[i]);
+
+            // Create left-facing images by mirroring horizontally
+            loaded[i * 2 + 1] = new GreenfootImage(loaded[i * 2]);
+            loaded[i * 2 + 1].mirrorHorizontally();
+        }
+        frames = loaded;
+    }
+
+    /**
+     * Start decoding every sprite image at once, one job per file on the given workers,
+     * and return the jobs (none, if they are already loaded). The sprites are ready once
+     * every job is done.
+     */
+    public static List<Future<?>> preload(ExecutorService workers)
+    {
+        // Already loaded (by an earlier world): nothing to do
+        List<Future<?>> jobs = new ArrayList<Future<?>>();
+        if (frames != null)
+        {
+            return jobs;
+        }
+
+        final long startTime = System.nanoTime();
+        final GreenfootImage[] loaded = new GreenfootImage[FILES.length * 2];
+        final AtomicInteger left = new AtomicInteger(FILES.length);
+        for (int i = 0; i < FILES.length; i += 1)
+        {
+            final int file = i;
+            jobs.add(workers.submit(new Runnable()
+            {
+                public void run()
+                {
+                    loaded[file * 2] = new GreenfootImage(FILES[file]);
+                    loaded[file * 2 + 1] = new GreenfootImage(loaded[file * 2]);
+                    loaded[file * 2 + 1].mirrorHorizontally();
+
+                    // The last one done hands them all out
+                    if (left.decrementAndGet() == 0)
+                    {
+                        loadNanos = System.nanoTime() - startTime;
+                        frames = loaded;
+                    }
+                }
+            }));
+        }
+        return jobs;
+    }
+
+    /**
+     * Nanoseconds it took to decode every sprite on the workers, or -1 if that hasn't finished.
+     */
+    public static long getLoadNanos()
+    {
+        return loadNanos;
+    }
+
+    /**
+     * Return a sprite as drawn (facing right).
+     */
+    public static GreenfootImage get(int sprite)
+    {
+        return get(sprite, false);
+    }
+
+    /**
+     * Return a sprite, mirrored horizontally (facing left) if asked.
+     */
+    public static GreenfootImage get(int sprite, boolean mirrored)
+    {
+        if (frames == null)
+        {
+            preload();
+        }
+        return frames[sprite * 2 + (mirrored ? 1 : 0)];
+    }
+
+    /**
+     * Return a sprite turned the given number of degrees clockwise, for drawing
+     * straight onto another image (which can't turn what it draws).
+     *
+     * The turned image is big enough for the sprite at any angle, with the sprite
+     * in the middle.
+     */
+    public static GreenfootImage getRotated(int sprite, int degrees)
+    {
+        degrees = ((degrees % 360) + 360) % 360;
+        if (rotated[sprite] == null)
+        {
+            rotated[sprite] = new GreenfootImage[360];
+        }
+        if (rotated[sprite][degrees] == null)
+        {
+            GreenfootImage original = get(sprite);
+            int size = (int) Math.ceil(Math.hypot(original.getWidth(), original.getHeight()));
+            GreenfootImage turned = new GreenfootImage(size, size);
+
+            Graphics2D graphics = turned.getAwtImage().createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.rotate(Math.toRadians(degrees), size / 2.0, size / 2.0);
+            graphics.drawImage(original.getAwtImage(), (size - original.getWidth()) / 2, (size - original.getHeight()) / 2, null);
+            graphics.dispose();
+
+            rotated[sprite][degrees] = turned;
+        }
+        return rotated[sprite][degrees];
+    }
+}
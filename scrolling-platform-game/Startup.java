@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gets everything the world needs ready at the same time, on a small pool of worker
+ * threads.
+ *
+ * Started in the world's constructor, it loads the level and builds the Simulation,
+ * decodes every sprite image (one per task), and opens the music and sound effects,
+ * all at once. The constructor waits for the level and sprites with getSimulation()
+ * (the sounds carry on loading by themselves), then adds its actors and calls
+ * finish(), so the world is complete before Greenfoot shows it. Only the chunks of
+ * the level near the hero get actors, so that last step doesn't grow with the size
+ * of the level.
+ *
+ * How long each part took is kept for describe().
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Startup
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Worker threads (at least two, so one slow job doesn't hold up the rest)
+    private ExecutorService workers;
+
+    // The level file, and the game built from it (once it has loaded)
+    private String levelFile;
+    private Future<Simulation> simulation;
+
+    // One job per sprite image being decoded
+    private List<Future<?>> sprites;
+
+    // The music and sound effects (they load themselves on the workers)
+    private Sounds sounds;
+
+    // When startup began, and how long each part took, in nanoseconds
+    private long startTime;
+    private volatile long levelNanos;
+    private volatile long simulationNanos;
+    private long waitNanos;
+    private long actorNanos;
+    private long totalNanos;
+
+    /**
+     * Constructor
+     *
+     * Starts loading the given level, the sprites and the sounds, and returns straight away.
+     */
+    public Startup(String levelFile)
+    {
+        this.levelFile = levelFile;
+        startTime = System.nanoTime();
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        workers = Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            public Thread newThread(Runnable job)
+            {
+                Thread thread = new Thread(job, "Startup worker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // The level and the sounds take longest on their own, so they go first
+        simulation = workers.submit(new Callable<Simulation>()
+        {
+            public Simulation call() throws IOException
+            {
+                return buildSimulation();
+            }
+        });
+        sounds = new Sounds(workers);
+        sprites = Sprites.preload(workers);
+    }
+
+    /**
+     * Load the level and set up the game in it (on a worker).
+     */
+    private Simulation buildSimulation() throws IOException
+    {
+        long levelStart = System.nanoTime();
+        LevelData level = LevelData.load(levelFile);
+        levelNanos = System.nanoTime() - levelStart;
+
+        long simulationStart = System.nanoTime();
+        Simulation built = new Simulation(level);
+        simulationNanos = System.nanoTime() - simulationStart;
+        return built;
+    }
+
+    /**
+     * Wait for the level and every sprite, then return the game.
+     */
+    public Simulation getSimulation()
+    {
+        long waitStart = System.nanoTime();
+        for (Future<?> sprite : sprites)
+        {
+            waitFor(sprite, "a sprite image");
+        }
+        Simulation built = waitFor(simulation, levelFile);
+        waitNanos += System.nanoTime() - waitStart;
+        return built;
+    }
+
+    /**
+     * The result of a job, once it has finished.
+     */
+    private static <T> T waitFor(Future<T> job, String what)
+    {
+        try
+        {
+            return job.get();
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Could not load " + what, e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + what, e);
+        }
+    }
+
+    /**
+     * The music and sound effects (which may still be loading).
+     */
+    public Sounds getSounds()
+    {
+        return sounds;
+    }
+
+    /**
+     * The world has added its actors, taking the given time to do it: startup is over.
+     *
+     * The workers finish whatever they are still loading and then stop.
+     */
+    public void finish(long actorNanos)
+    {
+        this.actorNanos = actorNanos;
+        totalNanos = System.nanoTime() - startTime;
+        workers.shutdown();
+    }
+
+    /**
+     * Nanoseconds from starting to load until the world was ready to play.
+     */
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    /**
+     * Describe how long each part of startup took, in microseconds.
+     */
+    public String describe()
+    {
+        long soundNanos = sounds.getLoadNanos();
+        return "Startup took " + (totalNanos / 1000) + " us: level " + (levelNanos / 1000)
+               + ", simulation " + (simulationNanos / 1000)
+               + ", sprites " + (sprites.isEmpty() ? "already loaded" : (Sprites.getLoadNanos() / 1000) + " (on " + sprites.size() + " jobs)")
+               + ", sounds " + (soundNanos < 0 ? "still loading" : (soundNanos / 1000) + "")
+               + ", waiting " + (waitNanos / 1000) + ", actors " + (actorNanos / 1000);
+    }
+}
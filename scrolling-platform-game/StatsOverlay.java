@@ -0,0 +1,74 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+
+/**
+ * Shows the frame timings recorded in a FrameStats in the corner of the screen.
+ *
+ * Press F3 in the game to show or hide it.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class StatsOverlay extends Actor
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Size of the overlay, and of its text
+    private static final int WIDTH = 300;
+    private static final int LINE_HEIGHT = 14;
+    private static final int FONT_SIZE = 12;
+
+    // Redraw the text this often (in frames), so drawing it costs little
+    private static final int REDRAW_DELAY = 15;
+
+    // The timings to show
+    private FrameStats stats;
+
+    // Frames until the text is next redrawn
+    private int framesUntilRedraw;
+
+    /**
+     * Constructor
+     *
+     * Shows the given timings.
+     */
+    public StatsOverlay(FrameStats stats)
+    {
+        this.stats = stats;
+        framesUntilRedraw = 0;
+        redraw();
+    }
+
+    /**
+     * Update the text every so often.
+     */
+    public void act()
+    {
+        framesUntilRedraw -= 1;
+        if (framesUntilRedraw <= 0)
+        {
+            redraw();
+            framesUntilRedraw = REDRAW_DELAY;
+        }
+    }
+
+    /**
+     * Draw the latest timings onto a fresh image.
+     */
+    private void redraw()
+    {
+        String[] lines = stats.describe();
+        GreenfootImage image = new GreenfootImage(WIDTH, (lines.length + 1) * LINE_HEIGHT);
+        image.setColor(new Color(0, 0, 0, 160));
+        image.fill();
+        image.setColor(Color.WHITE);
+        image.setFont(new Font("Monospaced", false, false, FONT_SIZE));
+        for (int i = 0; i < lines.length; i += 1)
+        {
+            image.drawString(lines[i], 4, (i + 1) * LINE_HEIGHT);
+        }
+        setImage(image);
+    }
+}
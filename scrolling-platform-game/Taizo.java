@@ -1,9 +1,11 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
-import java.util.List;
 
 /**
  * This is the class for the "main character" in the action.
  * 
+ * How the hero moves is worked out by a Hero in the simulation; this actor
+ * just shows that Hero on screen.
+ * 
  * @author R. Gordon
  * @version May 8, 2019
  */
@@ -14,82 +16,20 @@ public class Taizo extends Actor
      * 
      * These are available for use in any method below.
      */
-    // Variable for how much ground has been removed/dugged
-    private int groundDugged;
-
-    // Horizontal speed (change in horizontal position, or delta X)
-    private int deltaX = 4;
-
-    // Vertical speed (change in vertical position, or delta Y)
-    private int deltaY = 4;
-
-    // Acceleration for falls
-    private int acceleration = 1;
-
-    // Strength of a jump
-    private int jumpStrength = -24;
-
-    // Track current theoretical position in wider "scrollable" world
-    private int currentScrollableWorldXPosition;
-
-    // Track whether game is over or not
-    private boolean isGameOver;
-
-    // Constants to track vertical direction
-    private static final String JUMPING_UP = "up";
-    private static final String JUMPING_DOWN = "down";
-    private String verticalDirection;
-
-    // Constants to track horizontal direction
-    private static final String FACING_RIGHT = "right";
-    private static final String FACING_LEFT = "left";
-    private String horizontalDirection;
-
-    // For walking animation
-    private GreenfootImage walkingRightImages[];
-    private GreenfootImage walkingLeftImages[];
-    private static final int WALK_ANIMATION_DELAY = 8;
-    private static final int COUNT_OF_WALKING_IMAGES = 2;
-    private int walkingFrames;
+    // The hero being shown
+    private Hero hero;
 
     /**
      * Constructor
      * 
      * This runs once when the Hero object is created.
      */
-    Taizo(int startingX)
+    Taizo(Hero hero)
     {
-        // Set where hero begins horizontally
-        currentScrollableWorldXPosition = startingX;
-
-        // Game on
-        isGameOver = false;
-
-        // First jump will be in 'down' direction
-        verticalDirection = JUMPING_DOWN;
+        this.hero = hero;
 
-        // Facing right to start
-        horizontalDirection = FACING_RIGHT;
-
-        // Set image
-        setImage("taizo-starting.png");
-
-        // Initialize the 'walking' arrays
-        walkingRightImages = new GreenfootImage[COUNT_OF_WALKING_IMAGES];
-        walkingLeftImages = new GreenfootImage[COUNT_OF_WALKING_IMAGES];
-
-        // Load walking images from disk
-        for (int i = 0; i < walkingRightImages.length; i++)
-        {
-            walkingRightImages[i] = new GreenfootImage("taizo-walk-right-" + i + ".png");
-
-            // Create left-facing images by mirroring horizontally
-            walkingLeftImages[i] = new GreenfootImage(walkingRightImages[i]);
-            walkingLeftImages[i].mirrorHorizontally();
-        }
-
-        // Track animation frames for walking
-        walkingFrames = 0;
+        // Set image (walking images, and their left-facing mirrors, are shared by Sprites)
+        setImage(Sprites.get(Sprites.TAIZO_STANDING));
     }
 
     /**
@@ -98,328 +38,34 @@ public class Taizo extends Actor
      */
     public void act() 
     {
-        checkKeys();
-        checkFall();
-        groundCollision();
-        touchingBorder();
+        // The world steps the simulation and then calls show()
     }
 
     /**
-     * Respond to keyboard action from the user.
+     * Move to where the hero is, and show the hero's current image.
+     *
+     * Alpha is how far the moment being drawn is between the last tick and the next
+     * (see FixedTimestep), so the hero moves smoothly even when ticks and frames differ.
      */
-    private void checkKeys()
+    public void show(Camera camera, double alpha)
     {
-        // Walking keys
-        if (Greenfoot.isKeyDown("left") && !isGameOver)
-        {
-            moveLeft();
-        }
-        else if (Greenfoot.isKeyDown("right") && !isGameOver)
-        {
-            moveRight();
-        }
-        else
-        {
-            // Standing still; reset walking animation
-            walkingFrames = 0;
-        }
-        if (Greenfoot.isKeyDown("up") && !isGameOver) 
-        {
-            setLocation(getX(), getY() - 3);
-            deltaY = 0;
-        }
-    }
+        setLocation(camera.toVisibleX(hero.getX(alpha)), hero.getY(alpha));
 
-    public void groundCollision()
-    {
-        if (isTouching(Ground.class) ) 
+        if (hero.getPose() == Hero.STANDING)
         {
-            removeTouching(Ground.class);
-            //Greenfoot.playSound("slurp.wav");
-            groundDugged = groundDugged + 1;
-
-            if (groundDugged == 702)
-            {
-                SideScrollingWorld world = (SideScrollingWorld) getWorld();
-                isGameOver = true;
-                world.setGameOver();
-                world.showText("GAME COMPLETED", world.getWidth() / 2, world.getHeight() / 2);
-            }
-        }
-    }
-
-    public void touchingBorder()
-    {
-        if(isTouching(MetalPlate.class))
-        {
-            setLocation(getX(), getY() + 3);
-        }
-    }
-
-    /**
-     * Should the hero be falling right now?
-     */
-    public void checkFall()
-    {
-        if (onPlatform())
-        {
-            // Stop falling
-            deltaY = 0;
-
-            // Set image
-            if (horizontalDirection == FACING_RIGHT && Greenfoot.isKeyDown("right") == false)
-            {
-                setImage("taizo-starting.png");
-            }
-            else if (horizontalDirection == FACING_LEFT && Greenfoot.isKeyDown("left") == false)
-            {
-                setImage("taizo-starting.png");
-            }
-
-            // Get a reference to any object that's created from a subclass of Platform,
-            // that is below (or just below in front, or just below behind) the hero
-            Actor directlyUnder = getOneObjectAtOffset(0, getImage().getHeight() / 2, Platform.class);
-            Actor frontUnder = getOneObjectAtOffset(getImage().getWidth() / 3, getImage().getHeight() / 2, Platform.class);
-            Actor rearUnder = getOneObjectAtOffset(0 - getImage().getWidth() / 3, getImage().getHeight() / 2, Platform.class);
-
-            // Bump the hero back up so that they are not "submerged" in a platform object
-            if (directlyUnder != null)
-            {
-                int correctedYPosition = directlyUnder.getY() - directlyUnder.getImage().getHeight() / 2 - this.getImage().getHeight() / 2;
-                setLocation(getX(), correctedYPosition);
-            }
-            if (frontUnder != null)
-            {
-                int correctedYPosition = frontUnder.getY() - frontUnder.getImage().getHeight() / 2 - this.getImage().getHeight() / 2;
-                setLocation(getX(), correctedYPosition);
-            }
-            if (rearUnder != null)
-            {
-                int correctedYPosition = rearUnder.getY() - rearUnder.getImage().getHeight() / 2 - this.getImage().getHeight() / 2;
-                setLocation(getX(), correctedYPosition);
-            }
+            setImage(Sprites.get(Sprites.TAIZO_STANDING));
         }
         else
         {
-            fall();
+            setImage(Sprites.get(Sprites.TAIZO_WALK + hero.getPose(), hero.isPoseMirrored()));
         }
     }
 
     /**
-     * Is the hero currently touching a solid object? (any subclass of Platform)
+     * Return the hero being shown.
      */
-    public boolean onPlatform()
+    public Hero getHero()
     {
-        // Get an reference to a solid object (subclass of Platform) below the hero, if one exists
-        Actor directlyUnder = getOneObjectAtOffset(0, getImage().getHeight() / 2, Platform.class);
-        Actor frontUnder = getOneObjectAtOffset(getImage().getWidth() / 3, getImage().getHeight() / 2, Platform.class);
-        Actor rearUnder = getOneObjectAtOffset(0 - getImage().getWidth() / 3, getImage().getHeight() / 2, Platform.class);
-
-        // If there is no solid object below (or slightly in front of or behind) the hero...
-        if (directlyUnder == null && frontUnder == null && rearUnder == null)
-        {
-            return false;   // Not on a solid object
-        }
-        else
-        {
-            return true;
-        }
-    }
-
-    /**
-     * Make the hero fall.
-     */
-    public void fall()
-    {
-        // See if direction has changed
-        if (deltaY > 0)
-        {
-            verticalDirection = JUMPING_DOWN;
-
-            // Set image
-            if (horizontalDirection == FACING_RIGHT)
-            {
-                setImage("taizo-starting.png");
-            }
-            else
-            {
-                setImage("taizo-starting.png");
-            }
-        }
-
-        // Fall (move vertically)
-        int newVisibleWorldYPosition = getY() + deltaY;
-        setLocation(getX(), newVisibleWorldYPosition );
-
-        // Accelerate (fall faster next time)
-        deltaY = deltaY + acceleration;
-    }
-
-    /**
-     * Animate walking
-     */
-    private void animateWalk(String direction)
-    {
-        // Track walking animation frames
-        walkingFrames += 1;
-
-        // Get current animation stage
-        int stage = walkingFrames / WALK_ANIMATION_DELAY;
-
-        // Animate
-        if (stage < walkingRightImages.length)
-        {
-            // Set image for this stage of the animation
-            if (direction == FACING_RIGHT)
-            {
-                setImage(walkingRightImages[stage]);
-            }
-            else
-            {
-                setImage(walkingLeftImages[stage]);
-            }
-        }
-        else
-        {
-            // Start animation loop from beginning
-            walkingFrames = 0;
-        }
-    }
-
-    /**
-     * Move the hero to the right.
-     */
-    public void moveRight()
-    {
-        // Track direction
-        horizontalDirection = FACING_RIGHT;
-
-        // Set image 
-        if (onPlatform())
-        {
-            animateWalk(horizontalDirection);
-        }
-
-        // Get object reference to world
-        SideScrollingWorld world = (SideScrollingWorld) getWorld(); 
-
-        // Decide whether to actually move, or make world's tiles move
-        if (currentScrollableWorldXPosition < world.HALF_VISIBLE_WIDTH)
-        {
-            // HERO IS WITHIN EXTREME LEFT PORTION OF SCROLLABLE WORLD
-            // So... actually move the actor within the visible world.
-
-            // Move to right in visible world
-            int newVisibleWorldXPosition = getX() + deltaX;
-            setLocation(newVisibleWorldXPosition, getY());
-
-            // Track position in wider scrolling world
-            currentScrollableWorldXPosition = getX();
-        }
-        else if (currentScrollableWorldXPosition + deltaX * 2 > world.SCROLLABLE_WIDTH - world.HALF_VISIBLE_WIDTH)
-        {
-            // HERO IS WITHIN EXTREME RIGHT PORTION OF SCROLLABLE WORLD
-            // So... actually move the actor within the visible world.
-
-            // Allow movement only when not at edge of world
-            if (currentScrollableWorldXPosition < world.SCROLLABLE_WIDTH - this.getImage().getWidth() / 2)
-            {
-                // Move to right in visible world
-                int newVisibleWorldXPosition = getX() + deltaX;
-                setLocation(newVisibleWorldXPosition, getY());
-
-                // Track position in wider scrolling world
-                currentScrollableWorldXPosition += deltaX;
-            }
-        }
-        else
-        {
-            // HERO IS BETWEEN LEFT AND RIGHT PORTIONS OF SCROLLABLE WORLD
-            // So... we move the other objects to create illusion of hero moving
-
-            // Track position in wider scrolling world
-            currentScrollableWorldXPosition += deltaX;
-
-            // Get a list of all platforms (objects that need to move
-            // to make hero look like they are moving)
-            List<Platform> platforms = world.getObjects(Platform.class);
-
-            // Move all the platform objects to make it look like hero is moving
-            for (Platform platform : platforms)
-            {
-                // Platforms move left to make hero appear to move right
-                platform.moveLeft(deltaX);
-            }
-        }   
-
-    }
-
-    /**
-     * Move the hero to the left.
-     */
-    public void moveLeft()
-    {
-        // Track direction
-        horizontalDirection = FACING_LEFT;
-
-        // Set image 
-        if (onPlatform())
-        {
-            animateWalk(horizontalDirection);
-        }
-
-        // Get object reference to world
-        SideScrollingWorld world = (SideScrollingWorld) getWorld(); 
-
-        // Decide whether to actually move, or make world's tiles move
-        if (currentScrollableWorldXPosition - deltaX < world.HALF_VISIBLE_WIDTH)
-        {
-            // HERO IS WITHIN EXTREME LEFT PORTION OF SCROLLABLE WORLD
-            // So... actually move the actor within the visible world.
-
-            // Don't let hero go off left edge of scrollable world 
-            // (Allow movement only when not at left edge)
-            if (currentScrollableWorldXPosition > 0)
-            {
-                // Move left in visible world
-                int newVisibleWorldXPosition = getX() - deltaX;
-                setLocation(newVisibleWorldXPosition, getY());
-
-                // Track position in wider scrolling world
-                currentScrollableWorldXPosition = getX();
-            }            
-        }
-        else if (currentScrollableWorldXPosition + deltaX * 2 > world.SCROLLABLE_WIDTH - world.HALF_VISIBLE_WIDTH)
-        {
-            // HERO IS WITHIN EXTREME RIGHT PORTION OF SCROLLABLE WORLD
-            // So... actually move the actor within the visible world.
-
-            // Move left in visible world
-            int newVisibleWorldXPosition = getX() - deltaX;
-            setLocation(newVisibleWorldXPosition, getY());
-
-            // Track position in wider scrolling world
-            currentScrollableWorldXPosition -= deltaX;
-        }        
-        else
-        {
-            // HERO IS BETWEEN LEFT AND RIGHT PORTIONS OF SCROLLABLE WORLD
-            // So... we move the other objects to create illusion of hero moving
-
-            // Track position in wider scrolling world
-            currentScrollableWorldXPosition -= deltaX;
-
-            // Get a list of all platforms (objects that need to move
-            // to make hero look like they are moving)
-            List<Platform> platforms = world.getObjects(Platform.class);
-
-            // Move all the platform objects at same speed as hero
-            for (Platform platform : platforms)
-            {
-                // Platforms move right to make hero appear to move left
-                platform.moveRight(deltaX);
-            }
-        } 
-
+        return hero;
     }
 }
@@ -0,0 +1,101 @@
+/**
+ * The diggable ground of a level, stored as a packed grid of cells.
+ *
+ * Each cell is one bit: set when there is still dirt there, clear once it has been dug.
+ * Cells are addressed by tile coordinate (column, row), so looking up or digging a cell
+ * takes the same (tiny) amount of time no matter how large the level is.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class Terrain
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Dimensions of the grid, in cells
+    private int columns;
+    private int rows;
+
+    // One bit per cell, 64 cells to a long, row after row
+    private long[] cells;
+
+    // How many cells still have dirt in them
+    private int remaining;
+
+    /**
+     * Constructor
+     *
+     * Creates a grid from packed cells: cell (column, row) is bit number
+     * row * columns + column, counting 64 bits to a long.
+     */
+    public Terrain(int columns, int rows, long[] cells)
+    {
+        this.columns = columns;
+        this.rows = rows;
+        this.cells = cells;
+
+        // Count the cells that have dirt in them
+        remaining = 0;
+        for (long bits : cells)
+        {
+            remaining += Long.bitCount(bits);
+        }
+    }
+
+    /**
+     * Is there dirt in the given cell? Cells outside the grid are always empty.
+     */
+    public boolean isSolid(int column, int row)
+    {
+        if (column < 0 || column >= columns || row < 0 || row >= rows)
+        {
+            return false;
+        }
+        int index = row * columns + column;
+        return (cells[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Dig out the given cell.
+     *
+     * Returns true if there was dirt there to remove.
+     */
+    public boolean dig(int column, int row)
+    {
+        if (!isSolid(column, row))
+        {
+            return false;
+        }
+        int index = row * columns + column;
+        cells[index >>> 6] &= ~(1L << index);
+        remaining -= 1;
+        return true;
+    }
+
+    /**
+     * Number of columns in the grid.
+     */
+    public int getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * Number of rows in the grid.
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Number of cells that still have dirt in them.
+     */
+    public int getRemaining()
+    {
+        return remaining;
+    }
+}
@@ -0,0 +1,296 @@
+import java.util.Random;
+
+/**
+ * Counts of the dirt left in a level, kept up to date as it is dug, so that
+ * "how much dirt is left here?" can be answered without looking at the cells.
+ *
+ * The level is split into chunks of CHUNK_COLUMNS columns (the same chunks the world
+ * creates its tiles in; see LevelChunk). For each chunk there is a summed-area table:
+ * entry (c, r) is the number of cells left in the chunk's first c columns and first
+ * r rows, so any rectangle inside the chunk is counted from four entries.
+ *
+ * For rectangles spanning many chunks, the chunks in the middle are counted all at once
+ * from a Fenwick tree (a running-total tree) over the chunks, one per row boundary.
+ *
+ * Counting the whole level takes constant time, as does any rectangle within one or
+ * two chunks (such as what is on screen); wider rectangles take a few more steps (growing with the log of the
+ * number of chunks). Digging a cell updates one chunk's table and a few tree entries.
+ *
+ * To check the counts against counting the cells one at a time, from a terminal in the
+ * scenario folder (no Greenfoot needed):
+ *
+ *   javac TerrainIndex.java
+ *   java TerrainIndex [columns]
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class TerrainIndex
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Width of a chunk, in columns
+    public static final int CHUNK_COLUMNS = 16;
+
+    // Digs and rectangles to try when checking the counts
+    private static final int CHECK_DIGS = 2000;
+    private static final int CHECK_RECTANGLES = 50;
+
+    // Dimensions of the level, in cells and chunks
+    private int columns;
+    private int rows;
+    private int chunkCount;
+
+    // Cells left in the level, and how many there were to start with
+    private int remaining;
+    private int initial;
+
+    // Summed-area table for each chunk: entry c * (rows + 1) + r counts the cells left in
+    // the chunk's columns before c and rows before r
+    private int[][] tables;
+
+    // For each row boundary r, a Fenwick tree over the chunks (numbered from 1) of the
+    // cells left in rows before r
+    private int[][] rowTrees;
+
+    /**
+     * Constructor
+     *
+     * Counts the dirt in the given terrain as it is now.
+     */
+    public TerrainIndex(Terrain terrain)
+    {
+        this(terrain, terrain.getRemaining());
+    }
+
+    /**
+     * Constructor
+     *
+     * Counts the dirt in the given terrain as it is now, for a level that started
+     * with the given number of cells of dirt (when some has already been dug).
+     */
+    public TerrainIndex(Terrain terrain, int initial)
+    {
+        columns = terrain.getColumns();
+        rows = terrain.getRows();
+        chunkCount = (columns + CHUNK_COLUMNS - 1) / CHUNK_COLUMNS;
+        tables = new int[chunkCount][(CHUNK_COLUMNS + 1) * (rows + 1)];
+        rowTrees = new int[rows + 1][chunkCount + 1];
+
+        // Fill in each chunk's summed-area table
+        for (int chunk = 0; chunk < chunkCount; chunk += 1)
+        {
+            int[] table = tables[chunk];
+            for (int c = 1; c <= CHUNK_COLUMNS; c += 1)
+            {
+                for (int r = 1; r <= rows; r += 1)
+                {
+                    int cell = terrain.isSolid(chunk * CHUNK_COLUMNS + c - 1, r - 1) ? 1 : 0;
+                    table[c * (rows + 1) + r] = cell + table[(c - 1) * (rows + 1) + r]
+                                                + table[c * (rows + 1) + r - 1] - table[(c - 1) * (rows + 1) + r - 1];
+                }
+            }
+
+            // Add the chunk's rows to the trees
+            for (int r = 1; r <= rows; r += 1)
+            {
+                addToTree(rowTrees[r], chunk, table[CHUNK_COLUMNS * (rows + 1) + r]);
+            }
+        }
+
+        remaining = terrain.getRemaining();
+        this.initial = initial;
+    }
+
+    /**
+     * A cell has just been dug out: count it as gone.
+     */
+    public void cellDug(int column, int row)
+    {
+        int chunk = column / CHUNK_COLUMNS;
+        int columnInChunk = column % CHUNK_COLUMNS;
+        remaining -= 1;
+
+        // Every table entry covering the cell is one less
+        int[] table = tables[chunk];
+        for (int c = columnInChunk + 1; c <= CHUNK_COLUMNS; c += 1)
+        {
+            for (int r = row + 1; r <= rows; r += 1)
+            {
+                table[c * (rows + 1) + r] -= 1;
+            }
+        }
+
+        // As is every row boundary below it, for this chunk
+        for (int r = row + 1; r <= rows; r += 1)
+        {
+            addToTree(rowTrees[r], chunk, -1);
+        }
+    }
+
+    /**
+     * Cells of dirt left in the whole level.
+     */
+    public int getRemaining()
+    {
+        return remaining;
+    }
+
+    /**
+     * Cells of dirt the level started with.
+     */
+    public int getInitial()
+    {
+        return initial;
+    }
+
+    /**
+     * Percentage of the starting dirt still left (0 to 100).
+     */
+    public int getPercentRemaining()
+    {
+        if (initial == 0)
+        {
+            return 0;
+        }
+        return (int) ((long) remaining * 100 / initial);
+    }
+
+    /**
+     * Cells of dirt left in a rectangle of cells (first and last column and row included).
+     * Any part of the rectangle outside the level is ignored.
+     */
+    public int countRemaining(int firstColumn, int firstRow, int lastColumn, int lastRow)
+    {
+        // Only count cells inside the level
+        firstColumn = Math.max(firstColumn, 0);
+        firstRow = Math.max(firstRow, 0);
+        lastColumn = Math.min(lastColumn, columns - 1);
+        lastRow = Math.min(lastRow, rows - 1);
+        if (firstColumn > lastColumn || firstRow > lastRow)
+        {
+            return 0;
+        }
+
+        int firstChunk = firstColumn / CHUNK_COLUMNS;
+        int lastChunk = lastColumn / CHUNK_COLUMNS;
+        int fromColumn = firstColumn - firstChunk * CHUNK_COLUMNS;
+        int toColumn = lastColumn - lastChunk * CHUNK_COLUMNS + 1;
+        if (firstChunk == lastChunk)
+        {
+            return countInChunk(firstChunk, fromColumn, toColumn, firstRow, lastRow + 1);
+        }
+
+        // The two end chunks, then every chunk in between
+        int count = countInChunk(firstChunk, fromColumn, CHUNK_COLUMNS, firstRow, lastRow + 1)
+                    + countInChunk(lastChunk, 0, toColumn, firstRow, lastRow + 1);
+        if (lastChunk > firstChunk + 1)
+        {
+            count += sumOfTree(rowTrees[lastRow + 1], lastChunk) - sumOfTree(rowTrees[lastRow + 1], firstChunk + 1)
+                     - sumOfTree(rowTrees[firstRow], lastChunk) + sumOfTree(rowTrees[firstRow], firstChunk + 1);
+        }
+        return count;
+    }
+
+    /**
+     * Cells left in one chunk's columns from fromColumn up to (not including) toColumn,
+     * and rows from fromRow up to (not including) toRow.
+     */
+    private int countInChunk(int chunk, int fromColumn, int toColumn, int fromRow, int toRow)
+    {
+        int[] table = tables[chunk];
+        return table[toColumn * (rows + 1) + toRow] - table[fromColumn * (rows + 1) + toRow]
+               - table[toColumn * (rows + 1) + fromRow] + table[fromColumn * (rows + 1) + fromRow];
+    }
+
+    /**
+     * Add an amount to one chunk in a Fenwick tree.
+     */
+    private void addToTree(int[] tree, int chunk, int amount)
+    {
+        for (int i = chunk + 1; i <= chunkCount; i += i & -i)
+        {
+            tree[i] += amount;
+        }
+    }
+
+    /**
+     * Total of the chunks before the given one (0 up to, not including, chunk) in a Fenwick tree.
+     */
+    private int sumOfTree(int[] tree, int chunk)
+    {
+        int sum = 0;
+        for (int i = chunk; i > 0; i -= i & -i)
+        {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Run from a terminal: java TerrainIndex [columns]
+     *
+     * Digs cells of a generated level at random, and after every dig checks the counts
+     * for the whole level and for random rectangles (some partly outside the level)
+     * against counting the cells one at a time. Exits with status 1 if any differ.
+     */
+    public static void main(String[] args)
+    {
+        int columns = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Simulation simulation = new Simulation(LevelGenerator.create(columns, 20, 0, 1));
+        Terrain terrain = simulation.getTerrain();
+        TerrainIndex index = simulation.getTerrainIndex();
+        Random random = new Random(1);
+
+        int checks = 0;
+        for (int dig = 0; dig < CHECK_DIGS; dig += 1)
+        {
+            int column = random.nextInt(terrain.getColumns());
+            int row = random.nextInt(terrain.getRows());
+            if (terrain.dig(column, row))
+            {
+                index.cellDug(column, row);
+            }
+
+            if (index.getRemaining() != terrain.getRemaining())
+            {
+                fail("whole level: " + index.getRemaining() + ", by counting: " + terrain.getRemaining());
+            }
+            for (int i = 0; i < CHECK_RECTANGLES; i += 1)
+            {
+                int firstColumn = random.nextInt(terrain.getColumns() + 4) - 2;
+                int firstRow = random.nextInt(terrain.getRows() + 4) - 2;
+                int lastColumn = firstColumn + random.nextInt(terrain.getColumns());
+                int lastRow = firstRow + random.nextInt(terrain.getRows());
+                int expected = 0;
+                for (int c = Math.max(firstColumn, 0); c <= Math.min(lastColumn, terrain.getColumns() - 1); c += 1)
+                {
+                    for (int r = Math.max(firstRow, 0); r <= Math.min(lastRow, terrain.getRows() - 1); r += 1)
+                    {
+                        expected += terrain.isSolid(c, r) ? 1 : 0;
+                    }
+                }
+                int counted = index.countRemaining(firstColumn, firstRow, lastColumn, lastRow);
+                if (counted != expected)
+                {
+                    fail("columns " + firstColumn + "-" + lastColumn + ", rows " + firstRow + "-" + lastRow
+                         + ": " + counted + ", by counting: " + expected);
+                }
+                checks += 1;
+            }
+        }
+        System.out.println("All " + checks + " rectangle counts match, " + index.getRemaining() + " cells left");
+    }
+
+    /**
+     * Report a count that doesn't match, and stop.
+     */
+    private static void fail(String message)
+    {
+        System.out.println("Counts differ for " + message);
+        System.exit(1);
+    }
+}
@@ -1,7 +1,8 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
 
 /**
- * Abstract class used to move all subclasses when we need to make it look like the hero is moving.
+ * Abstract class for objects that stay put in the scrollable world, and are drawn
+ * wherever the camera says they should be when we make it look like the hero is moving.
  * 
  * @author R. Gordon
  * @version May 8, 2019
@@ -29,19 +30,71 @@ public abstract class Tile extends Actor
     }
 
     /**
-     * Move to left (to make hero look like they are moving right)
+     * Move this object to a new position in the scrollable world (when it is reused).
      */
-    public void moveLeft(int speed)
+    void moveTo(int scrollableWorldX, int scrollableWorldY)
     {
-        setLocation(getX() - speed, getY());
+        scrollableWorldPositionX = scrollableWorldX;
+        scrollableWorldPositionY = scrollableWorldY;
     }
 
     /**
-     * Move to right (to make hero look like they are moving left)
+     * Horizontal position of this object in the scrollable world.
      */
-    public void moveRight(int speed)
+    public int getScrollableWorldX()
     {
-        setLocation(getX() + speed, getY());
+        return scrollableWorldPositionX;
+    }
+
+    /**
+     * Vertical position of this object in the scrollable world.
+     */
+    public int getScrollableWorldY()
+    {
+        return scrollableWorldPositionY;
+    }
+
+    /**
+     * First column of the scrollable world that this object covers.
+     */
+    public int getFirstColumn()
+    {
+        int left = scrollableWorldPositionX - getImage().getWidth() / 2;
+        return Math.floorDiv(left, SideScrollingWorld.TILE_SIZE);
+    }
+
+    /**
+     * Last column of the scrollable world that this object covers.
+     */
+    public int getLastColumn()
+    {
+        int right = scrollableWorldPositionX - getImage().getWidth() / 2 + getImage().getWidth();
+        return Math.floorDiv(right - 1, SideScrollingWorld.TILE_SIZE);
+    }
+
+    /**
+     * First row of the scrollable world that this object covers.
+     */
+    public int getFirstRow()
+    {
+        int top = scrollableWorldPositionY - getImage().getHeight() / 2;
+        return Math.floorDiv(top, SideScrollingWorld.TILE_SIZE);
+    }
+
+    /**
+     * Last row of the scrollable world that this object covers.
+     */
+    public int getLastRow()
+    {
+        int bottom = scrollableWorldPositionY - getImage().getHeight() / 2 + getImage().getHeight();
+        return Math.floorDiv(bottom - 1, SideScrollingWorld.TILE_SIZE);
+    }
+
+    /**
+     * Place this object in the visible world, based on where the camera is looking.
+     */
+    public void project(Camera camera)
+    {
+        setLocation(camera.toVisibleX(scrollableWorldPositionX), scrollableWorldPositionY);
     }
-    
 }
@@ -0,0 +1,86 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An index over the columns of the scrollable world, finding the loaded chunk (and so
+ * the tile actors) for any column in a single array access.
+ *
+ * What is solid is decided by the Simulation; this only keeps track of the actors
+ * that show the level.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class TileGrid
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Number of columns in the scrollable world
+    private int columns;
+
+    // The loaded chunks, by chunk index (null when a chunk is not loaded)
+    private LevelChunk[] chunks;
+
+    /**
+     * Constructor
+     *
+     * Creates an empty grid, with no chunks loaded.
+     */
+    public TileGrid(int columns)
+    {
+        this.columns = columns;
+        chunks = new LevelChunk[(columns + LevelChunk.COLUMNS - 1) / LevelChunk.COLUMNS];
+    }
+
+    /**
+     * Number of chunks that the grid is divided into.
+     */
+    public int getChunkCount()
+    {
+        return chunks.length;
+    }
+
+    /**
+     * Make a chunk part of the grid.
+     */
+    public void addChunk(LevelChunk chunk)
+    {
+        chunks[chunk.getIndex()] = chunk;
+    }
+
+    /**
+     * Take a chunk out of the grid.
+     */
+    public void removeChunk(LevelChunk chunk)
+    {
+        chunks[chunk.getIndex()] = null;
+    }
+
+    /**
+     * Return the loaded chunk holding the given column, or null if it is not loaded.
+     */
+    public LevelChunk getChunkAtColumn(int column)
+    {
+        if (column < 0 || column >= columns)
+        {
+            return null;
+        }
+        return chunks[column / LevelChunk.COLUMNS];
+    }
+
+    /**
+     * Return the tiles covering the given column (empty if its chunk is not loaded).
+     */
+    public List<Tile> getTilesInColumn(int column)
+    {
+        LevelChunk chunk = getChunkAtColumn(column);
+        if (chunk == null)
+        {
+            return Collections.emptyList();
+        }
+        return chunk.getTilesInColumn(column);
+    }
+}
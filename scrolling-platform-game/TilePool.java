@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the tiles of chunks that have been thrown away, so that later chunks can
+ * reuse them (and their images) instead of making new ones.
+ *
+ * Each piece of ground is a large image, so making one for every chunk the hero
+ * reaches, and again for every chunk after a restart or a restored snapshot, leaves
+ * a lot of memory for the garbage collector. With the pool, a chunk being loaded
+ * takes a ground that is no longer used and redraws it in place.
+ *
+ * The pool is shared by every world, so it lasts from one world to the next (when
+ * Greenfoot's Reset makes a new world, or the level changes). Only one world is shown
+ * at a time, so a new world can take back every tile the last one was using with
+ * reclaimAll(), which takes them out of the old world.
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class TilePool
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Grounds ready to be reused, and those handed out and not given back yet
+    private static List<Ground> free = new ArrayList<Ground>();
+    private static List<Ground> inUse = new ArrayList<Ground>();
+
+    // Number of grounds made, and number of times one was reused instead
+    private static int made = 0;
+    private static int reused = 0;
+
+    /**
+     * Return a ground showing the given columns of the level, at the given position in
+     * the scrollable world: one from the pool if there is one of the right size, or else
+     * a new one.
+     */
+    public static Ground obtainGround(int scrollableWorldX, int scrollableWorldY, LevelData level, DigMask mask,
+                                      int firstTerrainColumn, int columnCount)
+    {
+        Ground ground = null;
+        for (int i = free.size() - 1; i >= 0 && ground == null; i -= 1)
+        {
+            if (free.get(i).fits(mask, columnCount))
+            {
+                ground = free.remove(i);
+            }
+        }
+
+        if (ground != null)
+        {
+            ground.reuse(scrollableWorldX, scrollableWorldY, level, mask, firstTerrainColumn, columnCount);
+            reused += 1;
+        }
+        else
+        {
+            ground = new Ground(scrollableWorldX, scrollableWorldY, level, mask, firstTerrainColumn, columnCount);
+            made += 1;
+        }
+        inUse.add(ground);
+        return ground;
+    }
+
+    /**
+     * Give back the tiles of a chunk that has been thrown away (they must already be out of the world).
+     */
+    public static void release(LevelChunk chunk)
+    {
+        for (Tile tile : chunk.getTiles())
+        {
+            if (tile instanceof Ground && inUse.remove(tile))
+            {
+                free.add((Ground) tile);
+            }
+        }
+    }
+
+    /**
+     * Take back every tile handed out so far, removing any still in a world from it
+     * (when a new world starts, the old one is finished with them).
+     */
+    public static void reclaimAll()
+    {
+        for (Ground ground : inUse)
+        {
+            if (ground.getWorld() != null)
+            {
+                ground.getWorld().removeObject(ground);
+            }
+        }
+        free.addAll(inUse);
+        inUse.clear();
+    }
+
+    /**
+     * Describe how many tiles have been made and reused.
+     */
+    public static String describe()
+    {
+        return made + " grounds made, " + reused + " reused, " + free.size() + " free";
+    }
+}
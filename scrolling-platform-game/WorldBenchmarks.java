@@ -0,0 +1,131 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timings for the parts of the game that need Greenfoot's classes, on generated levels
+ * of several sizes, measured the same way as in Benchmarks.
+ *
+ *   newWorld       building a whole SideScrollingWorld (reading the level, the
+ *                  tiles, the background and the actors)
+ *   scrollStep     scrolling the camera one step, back and forth across a screen
+ *
+ * Benchmarks builds with javac alone, so these are kept apart: this class needs the
+ * Greenfoot classes on the classpath (greenfoot.jar, or a stand-in for its API when
+ * there is no display), and is run from the scenario folder so the images are found:
+ *
+ *   javac -cp greenfoot.jar *.java
+ *   java -cp greenfoot.jar:. WorldBenchmarks            (45, 450 and 4500 columns)
+ *   java -cp greenfoot.jar:. WorldBenchmarks 45 9000    (or choose the widths)
+ *
+ * @author R. Gordon
+ * @version May 8, 2019
+ */
+public class WorldBenchmarks
+{
+    /**
+     * Instance variables
+     *
+     * These are available for use in any method below.
+     */
+    // Height of every generated level, in tiles (as level 1)
+    private static final int ROWS = 20;
+
+    // How far the camera moves in one scroll step (as the hero does in one frame)
+    private static final int SCROLL_STEP = 4;
+
+    /**
+     * Run from a terminal: java WorldBenchmarks [level widths...]
+     */
+    public static void main(String[] args) throws IOException
+    {
+        List<Integer> widths = new ArrayList<Integer>();
+        for (String arg : args)
+        {
+            widths.add(Integer.parseInt(arg));
+        }
+        if (widths.isEmpty())
+        {
+            widths.add(45);
+            widths.add(450);
+            widths.add(4500);
+        }
+
+        for (int columns : widths)
+        {
+            String levelFile = writeLevel(columns);
+            newWorld(columns, levelFile);
+            scrollStep(columns, levelFile);
+        }
+    }
+
+    /**
+     * Write a generated level to a temporary file, and return the file's name.
+     */
+    private static String writeLevel(int columns) throws IOException
+    {
+        File file = File.createTempFile("benchmark-" + columns + "-", ".lvl");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try
+        {
+            out.write(LevelGenerator.createBytes(columns, ROWS, columns / 10, 1));
+        }
+        finally
+        {
+            out.close();
+        }
+        return file.getPath();
+    }
+
+    /**
+     * Building a whole world on the level.
+     */
+    private static void newWorld(int columns, final String levelFile)
+    {
+        Benchmarks.measure("newWorld", columns, new Benchmarks.Operation()
+        {
+            public void prepare()
+            {
+            }
+
+            public int run()
+            {
+                new SideScrollingWorld(levelFile);
+                return 1;
+            }
+        });
+    }
+
+    /**
+     * Scrolling the camera one step, right across a screen and then back again.
+     */
+    private static void scrollStep(int columns, String levelFile)
+    {
+        final SideScrollingWorld world = new SideScrollingWorld(levelFile);
+        final int steps = world.getWidth() / SCROLL_STEP;
+        Benchmarks.measure("scrollStep", columns, new Benchmarks.Operation()
+        {
+            public void prepare()
+            {
+            }
+
+            public int run()
+            {
+                for (int i = 0; i < steps; i += 1)
+                {
+                    world.scrollBy(SCROLL_STEP);
+                }
+                for (int i = 0; i < steps; i += 1)
+                {
+                    world.scrollBy(-SCROLL_STEP);
+                }
+                return steps * 2;
+            }
+        });
+    }
+}